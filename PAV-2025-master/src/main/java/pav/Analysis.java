@@ -1,4 +1,4 @@
-/* This program will plot a CFG for a method using soot [ExceptionalUnitGraph feature].
+/* This program will plot a CFG for a method using soot [BriefUnitGraph feature].
  * Arguments : <ProcessOrTargetDirectory> <MainClass> <TargetClass> <TargetMethod>
  *
  * References:
@@ -26,6 +26,7 @@ import soot.SootMethod;
 import soot.Type;
 import soot.Unit;
 import soot.Value;
+import soot.ValueBox;
 import soot.jimple.AddExpr;
 import soot.jimple.ArrayRef;
 import soot.jimple.AssignStmt;
@@ -65,6 +66,11 @@ import soot.toolkits.graph.UnitGraph;
 
 public class Analysis extends Base {
 
+	// Solver/driver settings; main() fills this from "--key=value" arguments
+	static AnalysisConfig config = new AnalysisConfig();
+	// Reverse points-to index of the current run; null unless --pts-index or --pts-query is given
+	static PointsToIndex ptsIndex;
+
 	/* ---------------------------------------------------------
 	 * Concrete lattice fact for MAY points-to (intra)
 	 * --------------------------------------------------------- */
@@ -77,21 +83,70 @@ public class Analysis extends Base {
 		private final Map<String, Type> localTypes;
 		// Stable mapping Unit-> "new%02d" (based on unit index)
 		private final Map<Unit, String> allocIds;
+		// Objects that may stand for more than one concrete object (AllocSites.isSummary)
+		private final Set<String> summaries;
 
 		private PointsToFact(Map<String, Set<String>> v,
 		                     Map<String, Set<String>> h,
 		                     Map<String, Type> lt,
-		                     Map<Unit, String> ids) {
+		                     Map<Unit, String> ids,
+		                     Set<String> summaries) {
 			this.varPts = v;
 			this.heapPts = h;
 			this.localTypes = lt;
 			this.allocIds = ids; // shared, read-only
+			this.summaries = summaries;
 		}
 
-		static PointsToFact bottom(Body body, Map<Unit,String> allocIds) {
+		static PointsToFact bottom(Body body, AllocSites sites) {
 			Map<String, Type> lt = new HashMap<>();
 			for (Local l : body.getLocals()) lt.put(l.getName(), l.getType());
-			return new PointsToFact(new HashMap<>(), new HashMap<>(), lt, allocIds);
+			return bottom(lt, sites);
+		}
+
+		// Over a shared, read-only local-type map (MethodContext.localTypes)
+		static PointsToFact bottom(Map<String, Type> localTypes, AllocSites sites) {
+			return new PointsToFact(new HashMap<>(), new HashMap<>(), localTypes, sites.ids, sites.summaries);
+		}
+
+		// Degraded fact for methods over budget: every pointer local and every heap
+		// slot the method can touch may hold any of its allocation sites or null.
+		// All entries share one read-only set.
+		static PointsToFact top(Body body, AllocSites sites) {
+			PointsToFact b = bottom(body, sites);
+			Map<Unit, String> allocIds = sites.ids;
+			Set<String> all = new HashSet<>(allocIds.values());
+			all.add("null");
+			Set<String> fields = new HashSet<>();
+			for (Unit u : body.getUnits()) {
+				for (ValueBox vb : u.getUseAndDefBoxes()) {
+					Value v = vb.getValue();
+					if (v instanceof InstanceFieldRef ifr && isPtr(ifr.getField().getType())) fields.add(ifr.getField().getName());
+					else if (v instanceof ArrayRef) fields.add("[]");
+				}
+			}
+			Set<String> objs = Collections.unmodifiableSet(all);
+			for (Map.Entry<String, Type> e : b.localTypes.entrySet()) {
+				if (isPtr(e.getValue())) b.varPts.put(e.getKey(), objs);
+			}
+			for (String o : allocIds.values()) {
+				for (String f : fields) b.heapPts.put(o + "." + f, objs);
+			}
+			return b;
+		}
+
+		// Same locals/allocation IDs over the given maps, without copying them.
+		// The caller must not mutate the maps while the fact is in use.
+		PointsToFact over(Map<String, Set<String>> v, Map<String, Set<String>> h) {
+			return new PointsToFact(v, h, localTypes, allocIds, summaries);
+		}
+
+		// Number of (slot, object) pairs; used for fact-size budgets
+		int size() {
+			int n = 0;
+			for (Set<String> v : varPts.values()) n += v.size();
+			for (Set<String> v : heapPts.values()) n += v.size();
+			return n;
 		}
 
 		/* -------- Lattice ops () -------- */
@@ -103,7 +158,7 @@ public class Analysis extends Base {
 			unionInto(v, o.varPts);
 			Map<String, Set<String>> h = copyOf(heapPts);
 			unionInto(h, o.heapPts);
-			return new PointsToFact(v, h, localTypes, allocIds);
+			return new PointsToFact(v, h, localTypes, allocIds, summaries);
 		}
 
 		@Override
@@ -137,6 +192,9 @@ public class Analysis extends Base {
 				if (bases.isEmpty()) return this;
 				Set<String> rhs = evalRhs(R, st);
 				if (rhs.isEmpty()) return this;
+				// --pts-strong: the base must be one concrete object, so the slot is overwritten
+				String target = config.ptsStrong ? mustTarget(bases) : null;
+				if (target != null) return strongHeapUpdate(target + "." + ifw.getField().getName(), rhs);
 				return weakHeapUpdate(bases, ifw.getField().getName(), rhs);
 			}
 
@@ -156,13 +214,54 @@ public class Analysis extends Base {
 
 		@Override
 		public LatticeElement tf_cond(boolean b, Stmt st) {
-			// Phase-1: path-insensitive (identity)
+			// Fact on one edge of `if (x ==/!= null)` or `if (x ==/!= y)`; solvers apply it
+			// per edge through ptsEdge. Both cases only ever shrink a local's set.
+			if (!(st instanceof IfStmt ifst)) return this;
+			Value c = ifst.getCondition();
+			if (!(c instanceof EqExpr) && !(c instanceof NeExpr)) return this;
+			boolean equal = (c instanceof EqExpr) == b;
+			Value l = ((ConditionExpr) c).getOp1();
+			Value r = ((ConditionExpr) c).getOp2();
+
+			// x == null / x != null, either operand order
+			if (r instanceof NullConstant && isPtrLocal(l)) return refineNull(((Local) l).getName(), equal);
+			if (l instanceof NullConstant && isPtrLocal(r)) return refineNull(((Local) r).getName(), equal);
+
+			// x == y: both point into the intersection (nothing is learnt from x != y).
+			// An empty set is an unmodelled local (e.g. a parameter), not an empty intersection.
+			if (equal && isPtrLocal(l) && isPtrLocal(r)) {
+				String x = ((Local) l).getName(), y = ((Local) r).getName();
+				if (ptsOfLocal(x).isEmpty() || ptsOfLocal(y).isEmpty()) return this;
+				Set<String> both = new HashSet<>(ptsOfLocal(x));
+				both.retainAll(ptsOfLocal(y));
+				if (both.equals(ptsOfLocal(x)) && both.equals(ptsOfLocal(y))) return this;
+				Map<String, Set<String>> v = copyOf(varPts);
+				v.put(x, both);
+				v.put(y, new HashSet<>(both));
+				return new PointsToFact(v, this.heapPts, this.localTypes, this.allocIds, this.summaries);
+			}
 			return this;
 		}
 
+		// Keep only null in x (equal edge) or drop it (not-equal edge); an empty result means the edge is infeasible
+		private PointsToFact refineNull(String x, boolean equal) {
+			Set<String> cur = ptsOfLocal(x);
+			Set<String> keep = new HashSet<>(cur);
+			if (equal) keep.retainAll(Set.of("null"));
+			else keep.remove("null");
+			if (keep.size() == cur.size()) return this;
+			Map<String, Set<String>> v = copyOf(varPts);
+			v.put(x, keep);
+			return new PointsToFact(v, this.heapPts, this.localTypes, this.allocIds, this.summaries);
+		}
+
+		private static boolean isPtrLocal(Value v) {
+			return v instanceof Local lv && isPtr(lv.getType());
+		}
+
 		/* -------- RHS evaluation -------- */
 
-		private Set<String> evalRhs(Value R, Stmt st) {
+		Set<String> evalRhs(Value R, Stmt st) {
 			// null
 			if (R instanceof NullConstant) return one("null");
 
@@ -226,7 +325,24 @@ public class Analysis extends Base {
 		private PointsToFact strongLocal(String x, Set<String> rhs) {
 			Map<String, Set<String>> v = copyOf(varPts);
 			v.put(x, new HashSet<>(rhs)); // strong update
-			return new PointsToFact(v, this.heapPts, this.localTypes, this.allocIds);
+			return new PointsToFact(v, this.heapPts, this.localTypes, this.allocIds, this.summaries);
+		}
+
+		// The one non-summary object among bases, ignoring null (a write through null throws); else null
+		private String mustTarget(Set<String> bases) {
+			String only = null;
+			for (String o : bases) {
+				if ("null".equals(o)) continue;
+				if (only != null) return null;
+				only = o;
+			}
+			return (only == null || isSummary(only)) ? null : only;
+		}
+
+		private PointsToFact strongHeapUpdate(String key, Set<String> rhs) {
+			Map<String, Set<String>> h = copyOf(heapPts);
+			h.put(key, new HashSet<>(rhs)); // strong update
+			return new PointsToFact(this.varPts, h, this.localTypes, this.allocIds, this.summaries);
 		}
 
 		private PointsToFact weakHeapUpdate(Set<String> bases, String fname, Set<String> rhs) {
@@ -239,7 +355,7 @@ public class Analysis extends Base {
 				nu.addAll(rhs);
 				h.put(key, nu);
 			}
-			return new PointsToFact(this.varPts, h, this.localTypes, this.allocIds);
+			return new PointsToFact(this.varPts, h, this.localTypes, this.allocIds, this.summaries);
 		}
 
 		private Set<String> readHeap(Set<String> bases, String fname) {
@@ -253,7 +369,10 @@ public class Analysis extends Base {
 			return acc;
 		}
 
-		private Set<String> ptsOfLocal(String x) {
+		// See AllocSites.isSummary
+		boolean isSummary(String obj) { return summaries.contains(obj); }
+
+		Set<String> ptsOfLocal(String x) {
 			Set<String> s = varPts.get(x);
 			return (s == null) ? Collections.emptySet() : s;
 		}
@@ -274,7 +393,7 @@ public class Analysis extends Base {
 			}
 		}
 
-		private static boolean isPtr(Type t) {
+		static boolean isPtr(Type t) {
 			if (t == null) return false;
 			if (t instanceof PrimType) return false;
 			return (t instanceof RefType) || (t instanceof ArrayType);
@@ -314,6 +433,125 @@ public class Analysis extends Base {
 		// Getter for heapPts - needed for IA to read object field initial values
 		Map<String, Set<String>> getHeapPts() { return heapPts; }
 		Map<String, Set<String>> getVarPts() { return varPts; }
+
+		/* -------- Heap abstraction -------- */
+
+		// How allocation sites are mapped to abstract objects
+		enum HeapModel {
+			SITE,  // one object per allocating unit (default)
+			TYPE,  // one object per allocated type
+			KIND   // one object per allocating statement class (new / newarray / newmultiarray / call)
+		}
+
+		/* Allocation sites of one method and the abstract object each maps to.
+		 * A merged object keeps the "newNN" name of its first site, so the
+		 * output format is unchanged; members() expands it back to its sites.
+		 */
+		static final class AllocSites {
+			final Map<Unit, String> ids;                     // allocating unit -> abstract object
+			private final Map<String, List<String>> members; // abstract object -> site IDs, in unit order
+			private final Map<String, Type> siteTypes;       // site ID -> allocated (or declared return) type
+			private final Set<String> summaries;             // see isSummary
+
+			private AllocSites(Map<Unit, String> ids, Map<String, List<String>> members, Map<String, Type> siteTypes,
+			                   Set<String> summaries) {
+				this.ids = ids;
+				this.members = members;
+				this.siteTypes = siteTypes;
+				this.summaries = summaries;
+			}
+
+			// siteIds: stable per-unit IDs from precomputeAllocIds.
+			// cap > 0 bounds the number of abstract objects: once cap - 1 objects exist,
+			// every further site folds into one overflow summary.
+			static AllocSites build(Body body, UnitGraph cfg, Map<Unit, String> siteIds, HeapModel model, int cap) {
+				Map<Unit, String> ids = new HashMap<>();
+				Map<String, List<String>> members = new LinkedHashMap<>();
+				Map<String, Type> siteTypes = new HashMap<>();
+				Map<String, String> repOfKey = new HashMap<>();
+				String overflow = null;
+				for (Unit u : body.getUnits()) {
+					String site = siteIds.get(u);
+					if (site == null) continue;
+					Value R = ((AssignStmt) u).getRightOp();
+					Type t = (R instanceof InvokeExpr ie) ? ie.getMethod().getReturnType() : R.getType();
+					siteTypes.put(site, t);
+
+					String key = switch (model) {
+						case SITE -> site;
+						case TYPE -> "type:" + t;
+						case KIND -> (R instanceof NewExpr) ? "kind:new"
+						           : (R instanceof NewArrayExpr) ? "kind:newarray"
+						           : (R instanceof NewMultiArrayExpr) ? "kind:newmultiarray"
+						           : "kind:call";
+					};
+					String rep = repOfKey.get(key);
+					if (rep == null) {
+						if (cap > 0 && repOfKey.size() >= cap - 1) {
+							if (overflow == null) overflow = site;
+							rep = overflow;
+						} else {
+							rep = site;
+						}
+						repOfKey.put(key, rep);
+					}
+					ids.put(u, rep);
+					members.computeIfAbsent(rep, k -> new ArrayList<>()).add(site);
+				}
+
+				Set<String> summaries = new HashSet<>();
+				for (Map.Entry<Unit, String> e : ids.entrySet()) {
+					Unit u = e.getKey();
+					if (members.get(e.getValue()).size() > 1 || ((AssignStmt) u).getRightOp() instanceof InvokeExpr
+							|| onCycle(cfg, u)) {
+						summaries.add(e.getValue());
+					}
+				}
+				return new AllocSites(ids, members, siteTypes, Collections.unmodifiableSet(summaries));
+			}
+
+			static AllocSites identity(Body body, UnitGraph cfg, Map<Unit, String> siteIds) {
+				return build(body, cfg, siteIds, HeapModel.SITE, 0);
+			}
+
+			// True if u can reach itself again, i.e. it may run more than once per call
+			private static boolean onCycle(UnitGraph cfg, Unit u) {
+				Deque<Unit> todo = new ArrayDeque<>(cfg.getSuccsOf(u));
+				Set<Unit> seen = new HashSet<>();
+				while (!todo.isEmpty()) {
+					Unit v = todo.removeFirst();
+					if (v == u) return true;
+					if (seen.add(v)) todo.addAll(cfg.getSuccsOf(v));
+				}
+				return false;
+			}
+
+			// Site IDs an abstract object stands for; {obj} itself if it was never merged
+			List<String> members(String obj) {
+				List<String> m = members.get(obj);
+				return (m == null) ? List.of(obj) : m;
+			}
+
+			// True if the object may stand for more than one concrete object at once: it merges
+			// several sites, its site is on a CFG cycle, or it is a call result (which may alias
+			// anything). Only a non-summary object can take a strong update.
+			boolean isSummary(String obj) { return summaries.contains(obj); }
+
+			// True if the object summarises more than one allocation site
+			boolean isMerged(String obj) {
+				List<String> m = members.get(obj);
+				return m != null && m.size() > 1;
+			}
+
+			boolean hasMerges() {
+				for (List<String> m : members.values()) if (m.size() > 1) return true;
+				return false;
+			}
+
+			Set<String> objects() { return members.keySet(); }
+
+			Type siteType(String site) { return siteTypes.get(site); }
+		}
 	}
 
 	/* ---------------------------------------------------------
@@ -488,6 +726,8 @@ public class Analysis extends Base {
 		private final Map<String, Type> localTypes;
 		// Points-to fact reference for resolving heap reads/writes
 		private PointsToFact ptsFact;
+		// Fact on an infeasible edge (--ia-prune), see unreachable()
+		private boolean unreachable;
 		
 		private IntervalFact(Map<String, Interval> i, Map<String, Interval> hi, Map<String, Type> lt) {
 			this.intervals = i;
@@ -498,10 +738,41 @@ public class Analysis extends Base {
 		static IntervalFact bottom(Body body) {
 			Map<String, Type> lt = new HashMap<>();
 			for (Local l : body.getLocals()) lt.put(l.getName(), l.getType());
-			return new IntervalFact(new HashMap<>(), new HashMap<>(), lt);
+			return bottom(lt);
+		}
+
+		// Over a shared, read-only local-type map (MethodContext.localTypes)
+		static IntervalFact bottom(Map<String, Type> localTypes) {
+			return new IntervalFact(new HashMap<>(), new HashMap<>(), localTypes);
+		}
+		
+		// Degraded fact for methods over budget: every int local and every known heap slot is top
+		static IntervalFact top(Body body, Set<String> heapKeys) {
+			IntervalFact b = bottom(body);
+			for (Map.Entry<String, Type> e : b.localTypes.entrySet()) {
+				if (isInt(e.getValue())) b.intervals.put(e.getKey(), Interval.top());
+			}
+			for (String k : heapKeys) b.heapIntervals.put(k, Interval.top());
+			return b;
+		}
+		
+		// No state reaches here: a branch refined some local to an empty interval (--ia-prune).
+		// It transfers to itself and is the identity of join and widening, so nothing flows past it.
+		IntervalFact unreachable() {
+			IntervalFact f = new IntervalFact(new HashMap<>(), new HashMap<>(), localTypes);
+			f.unreachable = true;
+			return f;
+		}
+
+		boolean isUnreachable() { return unreachable; }
+
+		// Number of tracked entries; used for fact-size budgets
+		int size() {
+			return intervals.size() + heapIntervals.size();
 		}
 		
 		IntervalFact withPtsFact(PointsToFact pts) {
+			if (unreachable) return this;
 			IntervalFact copy = new IntervalFact(new HashMap<>(intervals), new HashMap<>(heapIntervals), localTypes);
 			copy.ptsFact = pts;
 			return copy;
@@ -511,9 +782,16 @@ public class Analysis extends Base {
 			this.ptsFact = pts;
 		}
 		
+		// Same locals over the given maps, without copying them and without a points-to fact
+		IntervalFact over(Map<String, Interval> i, Map<String, Interval> h) {
+			return new IntervalFact(i, h, localTypes);
+		}
+		
 		@Override
 		public LatticeElement join_op(LatticeElement r) {
 			IntervalFact o = (IntervalFact) r;
+			if (unreachable) return o;
+			if (o.unreachable) return this;
 			Map<String, Interval> newInt = new HashMap<>();
 			
 			// Join variable intervals
@@ -546,6 +824,8 @@ public class Analysis extends Base {
 		
 		// Widening join for loop convergence
 		public IntervalFact widenJoin(IntervalFact o) {
+			if (unreachable) return o;
+			if (o.unreachable) return this;
 			Map<String, Interval> newInt = new HashMap<>();
 			
 			// Widen variable intervals
@@ -580,12 +860,12 @@ public class Analysis extends Base {
 		public boolean equals(LatticeElement r) {
 			if (this == r) return true;
 			if (!(r instanceof IntervalFact o)) return false;
-			return intervals.equals(o.intervals) && heapIntervals.equals(o.heapIntervals);
+			return unreachable == o.unreachable && intervals.equals(o.intervals) && heapIntervals.equals(o.heapIntervals);
 		}
 		
 		@Override
 		public LatticeElement tf_assign(Stmt st) {
-			if (!(st instanceof AssignStmt as)) return this;
+			if (unreachable || !(st instanceof AssignStmt as)) return this;
 			
 			Value L = as.getLeftOp();
 			Value R = as.getRightOp();
@@ -599,11 +879,22 @@ public class Analysis extends Base {
 				}
 			}
 			
-			// x.f = ... (int field) - don't track writes, only constructor initialization
-			// Skip heap field writes to match expected behavior
+			// x.f = ... (int field) - by default don't track writes, only constructor initialization.
+			// --ia-heap: strong update through a single non-summary object, weak update otherwise
 			if (L instanceof InstanceFieldRef ifr) {
-				// Don't apply weak update - just return this unchanged
-				return this;
+				if (!config.iaHeap || !isInt(ifr.getField().getType())) return this;
+				String fname = ifr.getField().getName();
+				// A base points-to has no object for (this, a parameter, a load through one) may alias any of them
+				if (ptsFact == null || !(ifr.getBase() instanceof Local bl)) return havocField(fname);
+				Set<String> bases = new HashSet<>(ptsFact.ptsOfLocal(bl.getName()));
+				if (bases.isEmpty()) return havocField(fname);
+				bases.remove("null"); // a write through null throws
+				if (bases.isEmpty()) return this;
+				Interval rhs = evalInterval(R);
+				if (rhs == null) rhs = Interval.top();
+				String only = bases.iterator().next();
+				if (bases.size() == 1 && !ptsFact.isSummary(only)) return strongHeapUpdate(only + "." + fname, rhs);
+				return weakHeapUpdate(bases, fname, rhs);
 			}
 			
 			return this;
@@ -611,12 +902,18 @@ public class Analysis extends Base {
 		
 		@Override
 		public LatticeElement tf_cond(boolean branch, Stmt st) {
-			if (!(st instanceof IfStmt ifst)) return this;
+			if (unreachable || !(st instanceof IfStmt ifst)) return this;
 			Value cond = ifst.getCondition();
 			if (!(cond instanceof ConditionExpr ce)) return this;
 			
 			Value op1 = ce.getOp1();
 			Value op2 = ce.getOp2();
+
+			// An edge whose condition cannot hold for any values of the operands carries no state
+			if (config.iaPrune && isIntOperand(op1) && isIntOperand(op2)) {
+				Boolean known = decide(ce, evalInterval(op1), evalInterval(op2));
+				if (known != null && known != branch) return unreachable();
+			}
 			
 			// Only handle simple cases: x < c, x <= c, x > c, x >= c, x == c, x != c
 			String varName = null;
@@ -639,11 +936,34 @@ public class Analysis extends Base {
 			if (curInt == null) curInt = Interval.top();
 			
 			Interval refined = refineInterval(ce, curInt, constInt, varIsOp1, branch);
-			if (refined == null) return this; // unreachable path
+			if (refined == null) return config.iaPrune ? unreachable() : this; // infeasible edge
 			
 			return strongUpdate(varName, refined);
 		}
 		
+		// Outcome of `a op b` for all values in a and b; null when it can go either way
+		static Boolean decide(ConditionExpr ce, Interval a, Interval b) {
+			if (a == null || b == null) return null;
+			boolean disjoint = a.hi < b.lo || b.hi < a.lo;
+			boolean same = a.lo == a.hi && b.lo == b.hi && a.lo == b.lo;
+			if (ce instanceof LtExpr) return (a.hi < b.lo) ? Boolean.TRUE : (a.lo >= b.hi) ? Boolean.FALSE : null;
+			if (ce instanceof LeExpr) return (a.hi <= b.lo) ? Boolean.TRUE : (a.lo > b.hi) ? Boolean.FALSE : null;
+			if (ce instanceof GtExpr) return (a.lo > b.hi) ? Boolean.TRUE : (a.hi <= b.lo) ? Boolean.FALSE : null;
+			if (ce instanceof GeExpr) return (a.lo >= b.hi) ? Boolean.TRUE : (a.hi < b.lo) ? Boolean.FALSE : null;
+			if (ce instanceof EqExpr) return same ? Boolean.TRUE : disjoint ? Boolean.FALSE : null;
+			if (ce instanceof NeExpr) return disjoint ? Boolean.TRUE : same ? Boolean.FALSE : null;
+			return null;
+		}
+
+		static boolean isIntOperand(Value v) {
+			return v instanceof IntConstant || (v instanceof Local l && isInt(l.getType()));
+		}
+
+		// Interval of an int operand here, as the transfer functions evaluate it
+		Interval intervalOf(Value v) {
+			return evalInterval(v);
+		}
+
 		private Interval refineInterval(ConditionExpr ce, Interval var, Interval constVal, boolean varIsOp1, boolean branch) {
 			// Extract bound from constant
 			long cLo = constVal.lo;
@@ -731,12 +1051,12 @@ public class Analysis extends Base {
 					return var.meet(new Interval(c, c));
 				} else {
 					// var != c - can't easily narrow unless var is [c, c]
-					return var;
+					return (config.iaPrune && var.lo == c && var.hi == c) ? null : var;
 				}
 			} else if (ce instanceof NeExpr) {
 				if (branch) {
-					// var != c - can't easily narrow
-					return var;
+					// var != c - can't easily narrow unless var is [c, c]
+					return (config.iaPrune && var.lo == c && var.hi == c) ? null : var;
 				} else {
 					// var == c
 					return var.meet(new Interval(c, c));
@@ -814,6 +1134,17 @@ public class Analysis extends Base {
 			return result;
 		}
 		
+		// Heap updates only touch slots the constructor seeded: a slot missing here is
+		// untracked (read as top), and creating it on one path would let a join lose the other.
+		private IntervalFact strongHeapUpdate(String key, Interval rhs) {
+			if (!heapIntervals.containsKey(key)) return this;
+			Map<String, Interval> newHeap = new HashMap<>(heapIntervals);
+			newHeap.put(key, rhs);
+			IntervalFact result = new IntervalFact(this.intervals, newHeap, this.localTypes);
+			result.ptsFact = this.ptsFact;
+			return result;
+		}
+
 		private IntervalFact weakHeapUpdate(Set<String> bases, String fname, Interval rhs) {
 			if (rhs == null) return this;
 			Map<String, Interval> newHeap = new HashMap<>(heapIntervals);
@@ -821,15 +1152,36 @@ public class Analysis extends Base {
 				if ("null".equals(o)) continue;
 				String key = o + "." + fname;
 				Interval cur = newHeap.get(key);
-				Interval joined = (cur == null) ? rhs : cur.join(rhs);
-				newHeap.put(key, joined);
+				if (cur == null) continue;
+				newHeap.put(key, cur.join(rhs));
+			}
+			IntervalFact result = new IntervalFact(this.intervals, newHeap, this.localTypes);
+			result.ptsFact = this.ptsFact;
+			return result;
+		}
+
+		// A write through an unknown base: every tracked slot of that field becomes top
+		private IntervalFact havocField(String fname) {
+			Map<String, Interval> newHeap = new HashMap<>(heapIntervals);
+			for (String k : heapIntervals.keySet()) {
+				if (k.endsWith("." + fname)) newHeap.put(k, Interval.top());
 			}
 			IntervalFact result = new IntervalFact(this.intervals, newHeap, this.localTypes);
 			result.ptsFact = this.ptsFact;
 			return result;
 		}
+
+		// A call may write any int field: every tracked slot becomes top
+		IntervalFact havocHeap() {
+			if (heapIntervals.isEmpty()) return this;
+			Map<String, Interval> newHeap = new HashMap<>();
+			for (String k : heapIntervals.keySet()) newHeap.put(k, Interval.top());
+			IntervalFact result = new IntervalFact(this.intervals, newHeap, this.localTypes);
+			result.ptsFact = this.ptsFact;
+			return result;
+		}
 		
-		private static boolean isInt(Type t) {
+		static boolean isInt(Type t) {
 			return t instanceof IntType || t instanceof soot.ByteType || 
 			       t instanceof soot.ShortType || t instanceof soot.CharType ||
 			       t instanceof soot.LongType;
@@ -839,6 +1191,10 @@ public class Analysis extends Base {
 			return intervals.get(varName);
 		}
 		
+		Map<String, Interval> getIntervals() {
+			return intervals;
+		}
+		
 		Map<String, Interval> getHeapIntervals() {
 			return heapIntervals;
 		}
@@ -879,11 +1235,135 @@ public class Analysis extends Base {
 		}
 	}
 
+	/* One encoded output file; formatting and writing are separate steps */
+	record OutputFile(java.nio.file.Path path, String text) {
+		void write() {
+			try {
+				java.nio.file.Files.createDirectories(path.getParent());
+				java.nio.file.Files.writeString(path, text);
+			} catch (IOException e) {
+				System.err.println("Failed writing " + path + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/* Everything a method's output files are made of; holds no facts.
+	 * reports: client name (AnalysisConfig.CLIENTS) -> lines of its <Class>.<method>.<name>.output.txt */
+	record MethodOutputs(SootMethod method, Set<Base.ResultTuple> pts, Set<Base.ResultTuple> ia,
+	                     List<ArrayAccessInfo> accesses, PointsToFact.AllocSites sites,
+	                     Map<String, List<String>> reports) {}
+
+	/* ---------------------------------------------------------
+	 * Per-unit fact lookup. The unit-level solver keeps full
+	 * tables; the block-level solver replays blocks on demand.
+	 * --------------------------------------------------------- */
+	interface UnitFacts {
+		PointsToFact ptsIn(Unit u);
+		PointsToFact ptsOut(Unit u);
+		IntervalFact iaIn(Unit u);
+		IntervalFact iaOut(Unit u);
+		// Refined fact stored by the solver on a branch edge, null if none
+		IntervalFact iaEdge(Unit from, Unit to);
+	}
+
+	static final class TableFacts implements UnitFacts {
+		private final Map<Unit, LatticeElement> ptsIn;
+		private final Map<Unit, LatticeElement> ptsOut;
+		private final Map<Unit, IntervalFact> iaIn;
+		private final Map<Unit, IntervalFact> iaOut;
+		// IfStmt -> (successor -> refined fact on that edge)
+		private final Map<Unit, Map<Unit, IntervalFact>> iaEdges;
+
+		TableFacts(Map<Unit, LatticeElement> ptsIn, Map<Unit, LatticeElement> ptsOut,
+		           Map<Unit, IntervalFact> iaIn, Map<Unit, IntervalFact> iaOut,
+		           Map<Unit, Map<Unit, IntervalFact>> iaEdges) {
+			this.ptsIn = ptsIn;
+			this.ptsOut = ptsOut;
+			this.iaIn = iaIn;
+			this.iaOut = iaOut;
+			this.iaEdges = iaEdges;
+		}
+
+		@Override public PointsToFact ptsIn(Unit u) { return (PointsToFact) ptsIn.get(u); }
+		@Override public PointsToFact ptsOut(Unit u) { return (PointsToFact) ptsOut.get(u); }
+		@Override public IntervalFact iaIn(Unit u) { return iaIn.get(u); }
+		@Override public IntervalFact iaOut(Unit u) { return iaOut.get(u); }
+
+		@Override
+		public IntervalFact iaEdge(Unit from, Unit to) {
+			Map<Unit, IntervalFact> edges = iaEdges.get(from);
+			return (edges != null) ? edges.get(to) : null;
+		}
+	}
+
+	/* ---------------------------------------------------------
+	 * Solved facts for one method (PTS + IA)
+	 * Edge facts computed by the IA solver are authoritative: the
+	 * output and any client read them here instead of re-running
+	 * the transfer functions.
+	 * --------------------------------------------------------- */
+	static final class MethodResult {
+		final MethodContext ctx;
+		final SootMethod method;
+		final Body body;
+		final UnitGraph cfg;
+		final Map<Unit, String> inLabel;
+		final Map<Unit, String> branchFalseLabel;
+		final Map<Unit, String> branchTrueLabel;
+		final PointsToFact.AllocSites sites;
+		private final UnitFacts facts;
+		// Pops, timings and budget status of each solver phase
+		final List<Budget.Meter> meters;
+
+		MethodResult(MethodContext ctx, UnitFacts facts, List<Budget.Meter> meters) {
+			this.ctx = ctx;
+			this.method = ctx.method;
+			this.body = ctx.body;
+			this.cfg = ctx.cfg;
+			this.inLabel = ctx.inLabel;
+			this.branchFalseLabel = ctx.branchFalseLabel;
+			this.branchTrueLabel = ctx.branchTrueLabel;
+			this.sites = ctx.sites;
+			this.facts = facts;
+			this.meters = meters;
+		}
+
+		// True if some phase ran over budget and its facts were widened to top
+		boolean degraded() {
+			for (Budget.Meter m : meters) if (m.exceeded()) return true;
+			return false;
+		}
+
+		PointsToFact ptsIn(Unit u) { return facts.ptsIn(u); }
+		PointsToFact ptsOut(Unit u) { return facts.ptsOut(u); }
+		IntervalFact iaIn(Unit u) { return facts.iaIn(u); }
+		IntervalFact iaOut(Unit u) { return facts.iaOut(u); }
+
+		// Fact flowing along from -> to (OUT[from], refined per branch under --pts-null-refine)
+		PointsToFact ptsEdgeFact(Unit from, Unit to) {
+			if (!cfg.getSuccsOf(from).contains(to)) return null;
+			return (PointsToFact) ptsEdge(cfg, from, to, ptsOut(from));
+		}
+
+		// Fact flowing along from -> to; null if the edge is not in the CFG
+		IntervalFact iaEdgeFact(Unit from, Unit to) {
+			if (!cfg.getSuccsOf(from).contains(to)) return null;
+			IntervalFact f = facts.iaEdge(from, to);
+			return (f != null) ? f : facts.iaOut(from);
+		}
+
+		// Refined fact for one branch of an IfStmt (TRUE = jump to target)
+		IntervalFact iaBranchFact(IfStmt ifst, boolean branch) {
+			if (!branch) return facts.iaOut(ifst); // OUT is the fall-through (FALSE) edge
+			return facts.iaEdge(ifst, ifst.getTarget());
+		}
+	}
+
 	/* ------------------------------------
 	 * Stable allocation IDs: "new%02d"
 	 * Based on the unit's source-order index.
 	 * ------------------------------------ */
-	private static Map<Unit, String> precomputeAllocIds(Body body) {
+	static Map<Unit, String> precomputeAllocIds(Body body) {
 		Map<Unit, String> ids = new HashMap<>();
 		int idx = 0;
 		for (Unit u : body.getUnits()) {
@@ -904,6 +1384,33 @@ public class Analysis extends Base {
 		return ids;
 	}
 
+	/**
+	 * --ia-heap: value of every int field of the class once its constructor returns.
+	 * Fields start at 0 (top if the constructor calls anything but Object's constructor).
+	 * A write replaces the value in a straight-line constructor and is joined in a
+	 * branching one; a non-constant write, or one through another local, gives top.
+	 */
+	private static Map<String, Interval> constructorFieldValues(Body initBody) {
+		boolean straight = true;
+		for (Unit u : initBody.getUnits()) if (u.branches()) straight = false;
+		Interval start = callsOut(initBody) ? Interval.top() : Interval.constant(0);
+		Map<String, Interval> vals = new HashMap<>();
+		for (SootField f : initBody.getMethod().getDeclaringClass().getFields()) {
+			if (!f.isStatic() && IntervalFact.isInt(f.getType())) vals.put(f.getName(), start);
+		}
+		Local self = initBody.getThisLocal();
+		for (Unit u : initBody.getUnits()) {
+			if (!(u instanceof AssignStmt as) || !(as.getLeftOp() instanceof InstanceFieldRef ifr)) continue;
+			String fname = ifr.getField().getName();
+			if (!vals.containsKey(fname)) continue;
+			Interval rhs = (ifr.getBase() == self && as.getRightOp() instanceof IntConstant ic)
+				? Interval.constant(ic.value) : Interval.top();
+			if (straight) vals.put(fname, rhs);
+			else vals.put(fname, vals.get(fname).join(rhs));
+		}
+		return vals;
+	}
+
 	/**
 	 * Apply constructor field initialization effects to the interval fact.
 	 * Looks for assignments to "this.f = constant" in the constructor body.
@@ -911,6 +1418,25 @@ public class Analysis extends Base {
 	private static IntervalFact applyConstructorEffects(IntervalFact in, Set<String> baseAllocs, Body initBody) {
 		Map<String, Interval> newHeap = new HashMap<>(in.getHeapIntervals());
 		
+		// --ia-heap: seed every int field of the new object; a strong update unless the
+		// base may be several objects
+		if (config.iaHeap) {
+			Map<String, Interval> vals = constructorFieldValues(initBody);
+			Set<String> objs = new HashSet<>(baseAllocs);
+			objs.remove("null");
+			boolean strong = objs.size() == 1 && in.ptsFact != null && !in.ptsFact.isSummary(objs.iterator().next());
+			for (String alloc : objs) {
+				for (Map.Entry<String, Interval> e : vals.entrySet()) {
+					String key = alloc + "." + e.getKey();
+					Interval cur = newHeap.get(key);
+					newHeap.put(key, (strong || cur == null) ? e.getValue() : cur.join(e.getValue()));
+				}
+			}
+			IntervalFact result = new IntervalFact(in.intervals, newHeap, in.localTypes);
+			result.setPtsFact(in.ptsFact);
+			return result;
+		}
+		
 		// Find field assignments in the constructor: this.f = constant
 		for (Unit u : initBody.getUnits()) {
 			if (u instanceof AssignStmt as) {
@@ -956,12 +1482,16 @@ public class Analysis extends Base {
 	}
 
 	
-private static void writeOutput(SootMethod m, Set<Base.ResultTuple> tuples, String suffix) {
+private static OutputFile formatOutput(SootMethod m, Set<Base.ResultTuple> tuples, String suffix) {
     String cls = m.getDeclaringClass().getShortName();
     String outName = cls + "." + m.getName() + "." + suffix + ".output.txt";
     java.nio.file.Path outDir = java.nio.file.Path.of("output");
     java.nio.file.Path outFile = outDir.resolve(outName);
+    return new OutputFile(outFile, ptsText(tuples));
+}
 
+// Text of a PTS output file; also used to expand delta-encoded output
+static String ptsText(Set<Base.ResultTuple> tuples) {
     // Build lines ourselves to avoid trailing comma; keep original order of values
     java.util.List<String> lines = new java.util.ArrayList<>(tuples.size());
     for (Base.ResultTuple tup : tuples) {
@@ -980,20 +1510,19 @@ private static void writeOutput(SootMethod m, Set<Base.ResultTuple> tuples, Stri
         if (i < lines.size() - 1) sb.append("\r\n");  // No trailing newline
     }
 
-    try {
-        java.nio.file.Files.createDirectories(outDir);
-        java.nio.file.Files.writeString(outFile, sb.toString());
-    } catch (java.io.IOException e) {
-        System.err.println("Failed writing " + outFile + ": " + e.getMessage());
-    }
+    return sb.toString();
 }
 
-private static void writeIAOutput(SootMethod m, Set<Base.ResultTuple> tuples) {
+private static OutputFile formatIAOutput(SootMethod m, Set<Base.ResultTuple> tuples) {
     String cls = m.getDeclaringClass().getShortName();
     String outName = cls + "." + m.getName() + ".IA.output.txt";
     java.nio.file.Path outDir = java.nio.file.Path.of("output");
     java.nio.file.Path outFile = outDir.resolve(outName);
+    return new OutputFile(outFile, iaText(tuples));
+}
 
+// Text of an IA output file; also used to expand delta-encoded output
+static String iaText(Set<Base.ResultTuple> tuples) {
     // Build lines with interval format (no braces)
     java.util.List<String> lines = new java.util.ArrayList<>(tuples.size());
     for (Base.ResultTuple tup : tuples) {
@@ -1042,15 +1571,18 @@ private static void writeIAOutput(SootMethod m, Set<Base.ResultTuple> tuples) {
         if (i < lines.size() - 1) sb.append("\r\n");  // No trailing newline
     }
 
-    try {
-        java.nio.file.Files.createDirectories(outDir);
-        java.nio.file.Files.writeString(outFile, sb.toString());
-    } catch (java.io.IOException e) {
-        System.err.println("Failed writing " + outFile + ": " + e.getMessage());
-    }
+    return sb.toString();
 }
 
-private static void writeAASCOutput(SootMethod m, List<ArrayAccessInfo> accesses) {
+// <Class>.<method>.<kind>.delta.txt; null if the tuples cannot be delta-encoded
+private static OutputFile formatDelta(SootMethod m, String kind, Set<Base.ResultTuple> tuples) {
+    String mname = m.getDeclaringClass().getShortName() + "." + m.getName();
+    String text = DeltaOutput.encode(kind, mname, tuples);
+    if (text == null) return null;
+    return new OutputFile(java.nio.file.Path.of("output").resolve(mname + "." + kind + ".delta.txt"), text);
+}
+
+private static OutputFile formatAASCOutput(SootMethod m, List<ArrayAccessInfo> accesses) {
     String cls = m.getDeclaringClass().getShortName();
     String outName = cls + "." + m.getName() + ".AASC.output.txt";
     java.nio.file.Path outDir = java.nio.file.Path.of("output");
@@ -1072,12 +1604,51 @@ private static void writeAASCOutput(SootMethod m, List<ArrayAccessInfo> accesses
         if (i < lines.size() - 1) sb.append("\r\n");  // No trailing newline
     }
 
-    try {
-        java.nio.file.Files.createDirectories(outDir);
-        java.nio.file.Files.writeString(outFile, sb.toString());
-    } catch (java.io.IOException e) {
-        System.err.println("Failed writing " + outFile + ": " + e.getMessage());
+    return new OutputFile(outFile, sb.toString());
+}
+
+private static OutputFile formatHeapMapping(SootMethod m, PointsToFact.AllocSites sites) {
+    String cls = m.getDeclaringClass().getShortName();
+    String mname = cls + "." + m.getName();
+    java.nio.file.Path outDir = java.nio.file.Path.of("output");
+    java.nio.file.Path outFile = outDir.resolve(mname + ".HEAP.output.txt");
+
+    java.util.List<String> lines = new java.util.ArrayList<>();
+    for (String obj : sites.objects()) {
+        lines.add(mname + ": " + obj + ": {" + String.join(", ", sites.members(obj)) + "}");
+    }
+    java.util.Collections.sort(lines);
+
+    return new OutputFile(outFile, String.join("\r\n", lines));
+}
+
+// A client report, one file per method; the client orders its lines
+private static OutputFile formatReport(SootMethod m, String name, List<String> lines) {
+    String mname = m.getDeclaringClass().getShortName() + "." + m.getName();
+    java.nio.file.Path outFile = java.nio.file.Path.of("output").resolve(mname + "." + name + ".output.txt");
+    return new OutputFile(outFile, String.join("\r\n", lines));
+}
+
+private static void writeBudgetReport(SootClass c, List<String> hits) {
+    if (hits.isEmpty()) return;
+    java.nio.file.Path outDir = java.nio.file.Path.of("output");
+    java.nio.file.Path outFile = outDir.resolve(c.getShortName() + ".BUDGET.output.txt");
+    new OutputFile(outFile, String.join("\r\n", hits)).write();
+}
+
+// One line per (query, method, program point, slot) that may hold the queried object
+private static void writeQueryReport(SootClass c, PointsToIndex index, List<String> queries) {
+    java.util.List<String> lines = new java.util.ArrayList<>();
+    for (String q : queries) {
+        for (String m : index.methods()) {
+            for (PointsToIndex.Posting p : index.holders(m, q)) {
+                lines.add(q + ": " + p.method() + ": " + p.point() + ": " + p.slot());
+            }
+        }
     }
+    java.util.Collections.sort(lines);
+    java.nio.file.Path outFile = java.nio.file.Path.of("output").resolve(c.getShortName() + ".QUERY.output.txt");
+    new OutputFile(outFile, String.join("\r\n", lines)).write();
 }
 
 // Check if an array access is safe given interval analysis and points-to info
@@ -1125,111 +1696,97 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 	/* =========================
 	 * Kildall (worklist) solver
 	 * ========================= */
-	public static void doAnalysis(SootMethod targetMethod, List<SootMethod> targetClassMethods, Map<String, SootClass> innerClasses){
-		if (targetMethod.isPhantom() || !targetMethod.isConcrete()) return;
-
-		Body body = targetMethod.retrieveActiveBody();
-		UnitGraph cfg = new BriefUnitGraph(body);
-
-		// Program-point labels: after each semantic statement
-		// For while loops (inverted condition), output order should be:
-		// 1. FALSE branch (loop body entry) - at the condition
-		// 2. Loop body statements
-		// 3. TRUE branch (loop exit) - at the jump target
-		// Skip goto and return statements
-		Map<Unit, String> inLabel = new LinkedHashMap<>();
-		Map<Unit, String> branchFalseLabel = new LinkedHashMap<>();
-		Map<Unit, String> branchTrueLabel = new LinkedHashMap<>();
-		// Track which units should get a TRUE branch label from a previous if
-		Map<Unit, IfStmt> trueBranchSource = new LinkedHashMap<>();
-		
-		// First pass: identify if statements and their targets
-		for (Unit u : body.getUnits()) {
-			if (u instanceof IfStmt ifst) {
-				Unit target = ifst.getTarget();
-				trueBranchSource.put(target, ifst);
-			}
-		}
-		
-		// Second pass: assign labels
-		int lbl = 1;
-		List<Unit> unitList = new ArrayList<>();
-		for (Unit u : body.getUnits()) unitList.add(u);
-		
-		for (int i = 0; i < unitList.size(); i++) {
-			Unit u = unitList.get(i);
-			if (u instanceof GotoStmt || u instanceof ReturnStmt || u instanceof ReturnVoidStmt) {
-				continue;
-			}
-			
-			// If this unit is a TRUE branch target, output that label first
-			if (trueBranchSource.containsKey(u)) {
-				IfStmt sourceIf = trueBranchSource.get(u);
-				branchTrueLabel.put(sourceIf, getProgramPointName(lbl++));
-			}
-			
-			if (u instanceof IfStmt) {
-				// FALSE branch (fall-through) gets a label, unless it leads directly to return
-				Unit nextUnit = (i + 1 < unitList.size()) ? unitList.get(i + 1) : null;
-				if (nextUnit != null && !(nextUnit instanceof ReturnStmt) && !(nextUnit instanceof ReturnVoidStmt)) {
-					branchFalseLabel.put(u, getProgramPointName(lbl++));
-				}
-			} else {
-				inLabel.put(u, getProgramPointName(lbl++));
-			}
-		}
+	static MethodResult solve(MethodContext ctx, Map<String, SootClass> innerClasses) {
+		Budget.Meter ptsMeter = config.budget("PTS").meter("PTS");
+		Budget.Meter iaMeter = config.budget("IA").meter("IA");
+		// A flow-insensitive points-to fact is one shared map, so block-level storage would not save anything
+		UnitFacts facts = (config.blockLevel && !config.flowInsensitivePts(ctx.body))
+			? BlockSolver.solve(ctx, innerClasses, ptsMeter, iaMeter)
+			: solveUnits(ctx, innerClasses, ptsMeter, iaMeter);
+
+		return new MethodResult(ctx, facts, config.runs("IA") ? List.of(ptsMeter, iaMeter) : List.of(ptsMeter));
+	}
 
-		// Allocation IDs per allocating unit
-		Map<Unit, String> allocIds = precomputeAllocIds(body);
+	// Unit-level solver: one IN/OUT fact per Jimple unit.
+	// A phase that runs over budget stops iterating and widens every fact to top.
+	private static UnitFacts solveUnits(MethodContext ctx, Map<String, SootClass> innerClasses,
+	                                    Budget.Meter ptsMeter, Budget.Meter iaMeter) {
+		Body body = ctx.body;
+		UnitGraph cfg = ctx.cfg;
+		Map<Unit, String> allocIds = ctx.allocIds();
 
 		// ========================
 		// 1. Points-To Analysis
 		// ========================
-		LatticeElement ptsBottom = PointsToFact.bottom(body, allocIds);
-		Map<Unit, LatticeElement> PTS_IN  = new LinkedHashMap<>();
-		Map<Unit, LatticeElement> PTS_OUT = new LinkedHashMap<>();
+		LatticeElement ptsBottom = PointsToFact.bottom(ctx.localTypes, ctx.sites);
+		// With --off-heap the four IN/OUT tables keep their facts encoded outside the Java heap
+		OffHeapFacts store = config.offHeap ? new OffHeapFacts(body, (PointsToFact) ptsBottom, IntervalFact.bottom(ctx.localTypes)) : null;
+		Map<Unit, LatticeElement> PTS_IN  = (store != null) ? store.ptsTable() : new LinkedHashMap<>();
+		Map<Unit, LatticeElement> PTS_OUT = (store != null) ? store.ptsTable() : new LinkedHashMap<>();
 		for (Unit u : body.getUnits()) {
 			PTS_IN.put(u, ptsBottom);
 			PTS_OUT.put(u, ptsBottom);
 		}
+		// --incremental: units no edit can reach keep their saved facts; only the rest is re-solved
+		Incremental.Plan plan = Incremental.enabled(body) ? Incremental.plan(ctx, innerClasses) : null;
+		if (plan != null) plan.seedPts(PTS_IN, PTS_OUT);
 
 		Deque<Unit> wl = new ArrayDeque<>();
-		for (Unit u : body.getUnits()) wl.add(u);
-
-		while (!wl.isEmpty()) {
-			Unit n = wl.removeFirst();
-
-			LatticeElement newIn;
-			List<Unit> preds = cfg.getPredsOf(n);
-			if (preds.isEmpty()) {
-				newIn = PTS_IN.get(n);
-			} else {
-				newIn = PTS_OUT.get(preds.get(0));
-				for (int i = 1; i < preds.size(); i++) {
-					newIn = newIn.join_op(PTS_OUT.get(preds.get(i)));
+		if (config.flowInsensitivePts(body)) {
+			FlowInsensitivePointsTo.solve(body, (PointsToFact) ptsBottom, allocIds, ptsMeter, PTS_IN, PTS_OUT);
+		} else if (config.sccThreads > 0) {
+			SccPointsTo.solve(body, cfg, ptsBottom, ptsMeter, config.sccThreads, PTS_IN, PTS_OUT);
+		} else if (config.ptsDelta && !config.ptsNullRefine && !config.ptsStrong) {
+			DeltaPointsTo.solve(body, cfg, (PointsToFact) ptsBottom, ptsMeter, PTS_IN, PTS_OUT);
+		} else {
+			wl.addAll((plan != null) ? plan.reset : body.getUnits());
+
+			while (!wl.isEmpty()) {
+				if (!ptsMeter.pop()) break;
+				Unit n = wl.removeFirst();
+
+				LatticeElement newIn;
+				List<Unit> preds = cfg.getPredsOf(n);
+				if (preds.isEmpty()) {
+					newIn = PTS_IN.get(n);
+				} else {
+					newIn = ptsEdge(cfg, preds.get(0), n, PTS_OUT.get(preds.get(0)));
+					for (int i = 1; i < preds.size(); i++) {
+						newIn = newIn.join_op(ptsEdge(cfg, preds.get(i), n, PTS_OUT.get(preds.get(i))));
+					}
+				}
+				if (!newIn.equals(PTS_IN.get(n))) PTS_IN.put(n, newIn);
+
+				LatticeElement in = PTS_IN.get(n);
+				LatticeElement newOut = ptsTransfer(n, in);
+				if (!newOut.equals(PTS_OUT.get(n))) {
+					PTS_OUT.put(n, newOut);
+					if (ptsMeter.checksFactSize() && !ptsMeter.fits(((PointsToFact) newOut).size())) break;
+					for (Unit s : cfg.getSuccsOf(n)) if (!wl.contains(s)) wl.add(s);
 				}
 			}
-			if (!newIn.equals(PTS_IN.get(n))) PTS_IN.put(n, newIn);
-
-			LatticeElement in = PTS_IN.get(n);
-			LatticeElement newOut = in;
-			if (n instanceof AssignStmt) {
-				newOut = in.tf_assign((Stmt) n);
-			} else if (n instanceof IfStmt) {
-				newOut = in.tf_cond(true, (Stmt) n);
-			}
-			if (!newOut.equals(PTS_OUT.get(n))) {
-				PTS_OUT.put(n, newOut);
-				for (Unit s : cfg.getSuccsOf(n)) if (!wl.contains(s)) wl.add(s);
+		}
+		ptsMeter.finish();
+		if (ptsMeter.exceeded()) {
+			PointsToFact top = PointsToFact.top(body, ctx.sites);
+			for (Unit u : body.getUnits()) {
+				PTS_IN.put(u, top);
+				PTS_OUT.put(u, top);
 			}
 		}
 
+		// Nothing selected by --analyses reads interval facts: build no IA tables at all
+		if (!config.runs("IA")) {
+			if (Incremental.enabled(body) && !ptsMeter.exceeded()) Incremental.save(ctx, innerClasses, PTS_IN, PTS_OUT, null, null, null);
+			return new TableFacts(PTS_IN, PTS_OUT, Map.of(), Map.of(), Map.of());
+		}
+
 		// ========================
 		// 2. Interval Analysis (with PTS results, edge-based for condition refinement)
 		// ========================
-		IntervalFact iaBottom = IntervalFact.bottom(body);
-		Map<Unit, IntervalFact> IA_IN  = new LinkedHashMap<>();
-		Map<Unit, IntervalFact> IA_OUT = new LinkedHashMap<>();
+		IntervalFact iaBottom = IntervalFact.bottom(ctx.localTypes);
+		Map<Unit, IntervalFact> IA_IN  = (store != null) ? store.iaTable(PTS_IN) : new LinkedHashMap<>();
+		Map<Unit, IntervalFact> IA_OUT = (store != null) ? store.iaTable(PTS_IN) : new LinkedHashMap<>();
 		// Edge facts: for conditional branches, store refined facts on edges
 		// Key: pair of Unit objects
 		Map<Unit, Map<Unit, IntervalFact>> edgeFacts = new HashMap<>();
@@ -1239,181 +1796,276 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 			IA_OUT.put(u, iaBottom);
 		}
 
-		// Identify loop headers (nodes with back edges - predecessor that comes after in source order)
-		Set<Unit> loopHeaders = new HashSet<>();
-		Map<Unit, Integer> unitIndex = new HashMap<>();
-		int idx = 0;
-		for (Unit u : body.getUnits()) unitIndex.put(u, idx++);
-		for (Unit u : body.getUnits()) {
-			List<Unit> preds = cfg.getPredsOf(u);
-			int uIdx = unitIndex.get(u);
-			for (Unit pred : preds) {
-				int predIdx = unitIndex.get(pred);
-				if (predIdx > uIdx) {
-					loopHeaders.add(u);
-					break;
-				}
-			}
-		}
+		if (plan != null) plan.seedIntervals(IA_IN, IA_OUT, edgeFacts, PTS_IN);
+
+		Set<Unit> loopHeaders = ctx.loopHeaders;
+		Set<String> paramLocals = ctx.intParamLocals;
 
 		wl.clear();
-		for (Unit u : body.getUnits()) wl.add(u);
+		wl.addAll((plan != null) ? plan.reset : body.getUnits());
 
 		while (!wl.isEmpty()) {
+			if (!iaMeter.pop()) break;
 			Unit n = wl.removeFirst();
 
 			IntervalFact newIn;
 			List<Unit> preds = cfg.getPredsOf(n);
+			PointsToFact ptsFact = (PointsToFact) PTS_IN.get(n);
 			if (preds.isEmpty()) {
 				// Entry point - initialize only PARAMETER int locals to top
-				newIn = IA_IN.get(n);
-				PointsToFact ptsFact = (PointsToFact) PTS_IN.get(n);
-				newIn = newIn.withPtsFact(ptsFact);
-				
-				// Find which locals are parameters by looking at identity statements
-				// Parameters are assigned via IdentityStmt: x := @parameter0: T
-				// Actually, let's just look at the first few units for parameter assignments
-				Set<String> paramLocals = new HashSet<>();
-				for (Unit u : body.getUnits()) {
-					if (u instanceof soot.jimple.IdentityStmt is) {
-						Value rhs = is.getRightOp();
-						if (rhs instanceof soot.jimple.ParameterRef) {
-							Value lhs = is.getLeftOp();
-							if (lhs instanceof Local pl && IntervalFact.isInt(pl.getType())) {
-								paramLocals.add(pl.getName());
-							}
-						}
-					}
-				}
-				
-				// Initialize only parameter locals to top at entry
-				for (String pn : paramLocals) {
-					Map<String, Interval> newInts = new HashMap<>(newIn.intervals);
-					newInts.put(pn, Interval.top());
-					newIn = new IntervalFact(newInts, newIn.heapIntervals, newIn.localTypes);
-					newIn.setPtsFact(ptsFact);
-				}
+				newIn = iaEntryFact(IA_IN.get(n), ptsFact, paramLocals);
 			} else {
 				// Join facts from predecessor edges
-				IntervalFact first = null;
-				for (Unit pred : preds) {
-					Map<Unit, IntervalFact> predEdges = edgeFacts.get(pred);
-					IntervalFact edgeFact = (predEdges != null) ? predEdges.get(n) : null;
-					if (edgeFact == null) {
-						edgeFact = IA_OUT.get(pred);
-					}
-					
-					if (edgeFact == null) continue; // Skip if still bottom
-					
-					if (first == null) {
-						first = edgeFact;
-					} else {
-						// Apply widening at loop headers
-						if (loopHeaders.contains(n)) {
-							first = first.widenJoin(edgeFact);
-						} else {
-							first = (IntervalFact) first.join_op(edgeFact);
-						}
-					}
-				}
-				
-				if (first == null) first = iaBottom;
-				newIn = first;
+				newIn = iaJoinPreds(n, preds, edgeFacts, IA_OUT, loopHeaders.contains(n), iaBottom);
 				
 				// Attach PTS fact for this point
-				PointsToFact ptsFact = (PointsToFact) PTS_IN.get(n);
 				newIn = newIn.withPtsFact(ptsFact);
 			}
 			
 			if (!newIn.equals(IA_IN.get(n))) IA_IN.put(n, newIn);
 
 			IntervalFact in = IA_IN.get(n);
-			IntervalFact newOut = in;
-			
-			if (n instanceof AssignStmt) {
-				newOut = (IntervalFact) in.tf_assign((Stmt) n);
-			} else if (n instanceof IfStmt ifst) {
-				// For IfStmt, OUT represents facts for the fall-through edge (condition FALSE)
-				// This matches the expected output convention
-				newOut = (IntervalFact) in.tf_cond(false, (Stmt) n);
-			} else if (n instanceof InvokeStmt is) {
-				// Handle constructor calls to initialize fields
-				InvokeExpr ie = is.getInvokeExpr();
-				if (ie instanceof SpecialInvokeExpr sie && sie.getMethod().getName().equals("<init>")) {
-					Value base = sie.getBase();
-					if (base instanceof Local bl) {
-						// Get the allocation ID for the base object
-						PointsToFact ptsFact = (PointsToFact) PTS_IN.get(n);
-						Set<String> baseAllocs = ptsFact != null ? ptsFact.ptsOfLocal(bl.getName()) : null;
-						if (baseAllocs != null && !baseAllocs.isEmpty()) {
-							// Look up the constructor to find field initializations
-							// Get the method from the actual loaded class, not the phantom reference
-							SootMethod initRef = sie.getMethod();
-							String className = initRef.getDeclaringClass().getName();
-							
-							// Try to get the method from the resolved class
-							SootMethod init = null;
-							try {
-								// First check our pre-loaded inner classes
-								SootClass resolvedClass = innerClasses.get(className);
-								if (resolvedClass == null) {
-									resolvedClass = Scene.v().getSootClass(className);
-								}
-								if (!resolvedClass.isPhantom()) {
-									init = resolvedClass.getMethodByNameUnsafe("<init>");
-								}
-							} catch (Exception ex) {
-								// Ignore
-							}
-							
-							if (init != null && init.isConcrete()) {
-								Body initBody = init.retrieveActiveBody();
-								newOut = applyConstructorEffects(in, baseAllocs, initBody);
-							}
-						}
-					}
-				}
-			}
-			// For other statements, OUT = IN (identity transfer)
+			IntervalFact newOut = iaTransfer(n, in, ptsFact, innerClasses);
 			
 			boolean changed = !newOut.equals(IA_OUT.get(n));
 			if (changed) {
 				IA_OUT.put(n, newOut);
+				if (iaMeter.checksFactSize() && !iaMeter.fits(newOut.size())) break;
 			}
 			
 			// For conditional nodes, compute refined facts for each outgoing edge
 			if (n instanceof IfStmt ifst) {
-				Unit target = ifst.getTarget();
-				List<Unit> succs = cfg.getSuccsOf(n);
-				
-				Map<Unit, IntervalFact> nEdges = edgeFacts.computeIfAbsent(n, k -> new HashMap<>());
-				
-				for (Unit succ : succs) {
-					IntervalFact refinedFact;
-					if (succ == target) {
-						// Jump target - condition is TRUE
-						refinedFact = (IntervalFact) in.tf_cond(true, (Stmt) n);  // Use 'in', not 'newOut'
-					} else {
-						// Fall-through - condition is FALSE
-						refinedFact = (IntervalFact) in.tf_cond(false, (Stmt) n);  // Use 'in', not 'newOut'
-					}
-					
-					IntervalFact oldEdgeFact = nEdges.get(succ);
-					if (oldEdgeFact == null || !refinedFact.equals(oldEdgeFact)) {
-						nEdges.put(succ, refinedFact);
-						if (!wl.contains(succ)) wl.add(succ);
-					}
-				}
+				for (Unit s : updateBranchEdges(ifst, in, newOut, cfg, edgeFacts)) if (!wl.contains(s)) wl.add(s);
 			} else if (changed) {
 				for (Unit s : cfg.getSuccsOf(n)) if (!wl.contains(s)) wl.add(s);
 			}
 		}
+		iaMeter.finish();
+		if (iaMeter.exceeded()) {
+			IntervalFact top = IntervalFact.top(body, heapKeys(IA_OUT.values()));
+			for (Unit u : body.getUnits()) {
+				IntervalFact t = top.withPtsFact((PointsToFact) PTS_IN.get(u));
+				IA_IN.put(u, t);
+				IA_OUT.put(u, t);
+			}
+			degradeEdges(body, cfg, edgeFacts, top);
+		}
+		// Degraded facts are not worth reusing
+		if (Incremental.enabled(body) && !ptsMeter.exceeded() && !iaMeter.exceeded()) {
+			Incremental.save(ctx, innerClasses, PTS_IN, PTS_OUT, IA_IN, IA_OUT, edgeFacts);
+		}
+
+		return new TableFacts(PTS_IN, PTS_OUT, IA_IN, IA_OUT, edgeFacts);
+	}
+
+	/* -------- Budget degradation -------- */
+
+	// Every heap slot that any of the given facts tracks
+	static Set<String> heapKeys(Collection<IntervalFact> facts) {
+		Set<String> keys = new HashSet<>();
+		for (IntervalFact f : facts) keys.addAll(f.getHeapIntervals().keySet());
+		return keys;
+	}
+
+	// Every branch edge gets top, including edges of IfStmts the solver never reached
+	static void degradeEdges(Body body, UnitGraph cfg, Map<Unit, Map<Unit, IntervalFact>> edgeFacts, IntervalFact top) {
+		for (Unit u : body.getUnits()) {
+			if (!(u instanceof IfStmt)) continue;
+			Map<Unit, IntervalFact> edges = edgeFacts.computeIfAbsent(u, k -> new HashMap<>());
+			for (Unit s : cfg.getSuccsOf(u)) edges.put(s, top);
+		}
+	}
+
+	/* -------- Per-unit transfer, shared by the unit- and block-level solvers -------- */
+
+	static LatticeElement ptsTransfer(Unit n, LatticeElement in) {
+		if (n instanceof AssignStmt) {
+			return in.tf_assign((Stmt) n);
+		}
+		// An IfStmt's OUT is its IN; branch refinement belongs to the edges (ptsEdge)
+		return in;
+	}
+
+	// Points-to fact flowing along pred -> succ. With --pts-null-refine a two-way
+	// IfStmt refines it for the branch taken; otherwise it is pred's OUT.
+	static LatticeElement ptsEdge(UnitGraph cfg, Unit pred, Unit succ, LatticeElement predOut) {
+		if (!config.ptsNullRefine || !(pred instanceof IfStmt ifst)) return predOut;
+		if (cfg.getSuccsOf(pred).size() < 2) return predOut;
+		return predOut.tf_cond(succ == ifst.getTarget(), ifst);
+	}
+
+	static IntervalFact iaTransfer(Unit n, IntervalFact in, PointsToFact ptsFact, Map<String, SootClass> innerClasses) {
+		if (in.isUnreachable()) return in;
+		IntervalFact newOut = in;
+		
+		if (n instanceof AssignStmt as) {
+			newOut = (IntervalFact) in.tf_assign((Stmt) n);
+			if (config.iaHeap && as.containsInvokeExpr()) newOut = newOut.havocHeap();
+		} else if (n instanceof IfStmt ifst) {
+			// For IfStmt, OUT represents facts for the fall-through edge (condition FALSE)
+			// This matches the expected output convention
+			newOut = (IntervalFact) in.tf_cond(false, (Stmt) n);
+		} else if (n instanceof InvokeStmt is) {
+			// Handle constructor calls to initialize fields
+			InvokeExpr ie = is.getInvokeExpr();
+			Set<String> baseAllocs = null;
+			Body initBody = null;
+			if (ie instanceof SpecialInvokeExpr sie && sie.getMethod().getName().equals("<init>")) {
+				Value base = sie.getBase();
+				if (base instanceof Local bl) {
+					// Get the allocation ID for the base object
+					baseAllocs = ptsFact != null ? ptsFact.ptsOfLocal(bl.getName()) : null;
+				}
+				if (config.iaHeap || (baseAllocs != null && !baseAllocs.isEmpty())) {
+					// Look up the constructor to find field initializations
+					SootMethod init = resolveInit(sie, innerClasses);
+					if (init != null && init.isConcrete()) initBody = init.retrieveActiveBody();
+				}
+			}
+			// --ia-heap: a call may write any int field, unless it is a constructor that calls nothing else
+			if (config.iaHeap && !isObjectInit(ie) && (initBody == null || callsOut(initBody))) {
+				in = in.havocHeap();
+				newOut = in;
+			}
+			if (initBody != null && baseAllocs != null && !baseAllocs.isEmpty()) {
+				newOut = applyConstructorEffects(in, baseAllocs, initBody);
+			}
+		}
+		// For other statements, OUT = IN (identity transfer)
+		return newOut;
+	}
+
+	static boolean isObjectInit(InvokeExpr ie) {
+		return ie.getMethod().getSignature().equals("<java.lang.Object: void <init>()>");
+	}
+
+	// True if the body invokes anything but Object's constructor
+	private static boolean callsOut(Body b) {
+		for (Unit u : b.getUnits()) {
+			if (((Stmt) u).containsInvokeExpr() && !isObjectInit(((Stmt) u).getInvokeExpr())) return true;
+		}
+		return false;
+	}
+
+	// Constructor a "specialinvoke <init>" runs, from the actual loaded class rather than the phantom reference
+	static SootMethod resolveInit(SpecialInvokeExpr sie, Map<String, SootClass> innerClasses) {
+		String className = sie.getMethod().getDeclaringClass().getName();
+		try {
+			// First check our pre-loaded inner classes
+			SootClass resolvedClass = innerClasses.get(className);
+			if (resolvedClass == null) {
+				resolvedClass = Scene.v().getSootClass(className);
+			}
+			if (!resolvedClass.isPhantom()) {
+				return resolvedClass.getMethodByNameUnsafe("<init>");
+			}
+		} catch (Exception ex) {
+			// Ignore
+		}
+		return null;
+	}
+
+	// Entry fact: only PARAMETER int locals start at top
+	static IntervalFact iaEntryFact(IntervalFact in, PointsToFact ptsFact, Set<String> paramLocals) {
+		IntervalFact newIn = in.withPtsFact(ptsFact);
+		for (String pn : paramLocals) {
+			Map<String, Interval> newInts = new HashMap<>(newIn.intervals);
+			newInts.put(pn, Interval.top());
+			newIn = new IntervalFact(newInts, newIn.heapIntervals, newIn.localTypes);
+			newIn.setPtsFact(ptsFact);
+		}
+		return newIn;
+	}
+
+	// Join the facts on all edges into n, widening at loop headers
+	static IntervalFact iaJoinPreds(Unit n, List<Unit> preds, Map<Unit, Map<Unit, IntervalFact>> edgeFacts,
+	                                Map<Unit, IntervalFact> outFacts, boolean isLoopHeader, IntervalFact iaBottom) {
+		IntervalFact first = null;
+		for (Unit pred : preds) {
+			Map<Unit, IntervalFact> predEdges = edgeFacts.get(pred);
+			IntervalFact edgeFact = (predEdges != null) ? predEdges.get(n) : null;
+			if (edgeFact == null) {
+				edgeFact = outFacts.get(pred);
+			}
+			
+			if (edgeFact == null) continue; // Skip if still bottom
+			
+			if (first == null) {
+				first = edgeFact;
+			} else {
+				// Apply widening at loop headers
+				if (isLoopHeader) {
+					first = first.widenJoin(edgeFact);
+				} else {
+					first = (IntervalFact) first.join_op(edgeFact);
+				}
+			}
+		}
+		return (first == null) ? iaBottom : first;
+	}
+
+	// Store the refined fact of each IfStmt successor edge; returns the successors whose edge changed.
+	// The fall-through edge is OUT itself; only the jump edge needs tf_cond(true).
+	static List<Unit> updateBranchEdges(IfStmt ifst, IntervalFact in, IntervalFact out, UnitGraph cfg,
+	                                 Map<Unit, Map<Unit, IntervalFact>> edgeFacts) {
+		Unit target = ifst.getTarget();
+		Map<Unit, IntervalFact> nEdges = edgeFacts.computeIfAbsent(ifst, k -> new HashMap<>());
+		IntervalFact trueFact = null;
+		List<Unit> changed = new ArrayList<>(2);
+		
+		for (Unit succ : cfg.getSuccsOf(ifst)) {
+			IntervalFact refinedFact;
+			if (succ == target) {
+				// Jump target - condition is TRUE
+				if (trueFact == null) trueFact = (IntervalFact) in.tf_cond(true, ifst);  // Use 'in', not 'out'
+				refinedFact = trueFact;
+			} else {
+				// Fall-through - condition is FALSE (already computed as OUT)
+				refinedFact = out;
+			}
+			
+			IntervalFact oldEdgeFact = nEdges.get(succ);
+			if (oldEdgeFact == null || !refinedFact.equals(oldEdgeFact)) {
+				nEdges.put(succ, refinedFact);
+				changed.add(succ);
+			}
+		}
+		return changed;
+	}
+
+	public static void doAnalysis(SootMethod targetMethod, List<SootMethod> targetClassMethods, Map<String, SootClass> innerClasses){
+		MethodContext ctx = MethodContext.of(targetMethod);
+		if (ctx == null) return;
+		MethodOutputs outputs = collectOutputs(ctx, innerClasses);
+		for (OutputFile f : encodeOutputs(outputs)) f.write();
+	}
+
+	// Solve the method and gather its output tuples and array accesses
+	static MethodOutputs collectOutputs(MethodContext ctx, Map<String, SootClass> innerClasses) {
+		MethodResult res = solve(ctx, innerClasses);
+		Map<Unit, String> inLabel = res.inLabel;
+		String mname = ctx.name;
+		for (Budget.Meter m : res.meters) {
+			Budget.recordRun(mname, m);
+			if (m.exceeded()) Budget.record(mname, m);
+		}
+		// A degraded method has no trustworthy bounds: every access is reported Unsafe
+		boolean degraded = res.degraded();
 
 		// ========================
 		// 3. Array Access Safety Check
 		// ========================
 		List<ArrayAccessInfo> arrayAccesses = new ArrayList<>();
-		for (Unit u : body.getUnits()) {
+		Budget.Meter aascMeter = Budget.UNLIMITED.meter("AASC");
+		// --strided: a strided-interval pass and known array lengths can prove further accesses safe
+		Map<Unit, StridedIntervalFact> strided = null;
+		if (config.strided && config.runs("AASC") && !degraded) {
+			Budget.Meter strideMeter = config.budget("STRIDE").meter("STRIDE");
+			strided = StridedIntervalFact.solve(ctx, strideMeter);
+			Budget.recordRun(mname, strideMeter);
+			if (strideMeter.exceeded()) Budget.record(mname, strideMeter);
+		}
+		for (Unit u : config.runs("AASC") ? ctx.units : List.<Unit>of()) {
 			if (!(u instanceof AssignStmt as)) continue;
 			
 			Value L = as.getLeftOp();
@@ -1423,27 +2075,31 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 			
 			// Check array reads: x = a[i]
 			if (R instanceof ArrayRef) {
-				PointsToFact ptsFact = (PointsToFact) PTS_IN.get(u);
-				IntervalFact iaFact = IA_IN.get(u);
-				boolean safe = checkArrayAccessSafe((ArrayRef) R, ptsFact, iaFact);
+				aascMeter.pop();
+				PointsToFact ptsFact = res.ptsIn(u);
+				IntervalFact iaFact = res.iaIn(u);
+				boolean safe = !degraded && checkArrayAccessSafe((ArrayRef) R, ptsFact, iaFact);
+				if (!safe && strided != null) safe = checkStridedAccessSafe((ArrayRef) R, ptsFact, iaFact, strided.get(u), res);
 				arrayAccesses.add(new ArrayAccessInfo(label, safe));
 			}
 			
 			// Check array writes: a[i] = x
 			if (L instanceof ArrayRef) {
-				PointsToFact ptsFact = (PointsToFact) PTS_IN.get(u);
-				IntervalFact iaFact = IA_IN.get(u);
-				boolean safe = checkArrayAccessSafe((ArrayRef) L, ptsFact, iaFact);
+				aascMeter.pop();
+				PointsToFact ptsFact = res.ptsIn(u);
+				IntervalFact iaFact = res.iaIn(u);
+				boolean safe = !degraded && checkArrayAccessSafe((ArrayRef) L, ptsFact, iaFact);
+				if (!safe && strided != null) safe = checkStridedAccessSafe((ArrayRef) L, ptsFact, iaFact, strided.get(u), res);
 				arrayAccesses.add(new ArrayAccessInfo(label, safe));
 			}
 		}
+		aascMeter.finish();
+		if (config.runs("AASC")) Budget.recordRun(mname, aascMeter);
 
 		// ========================
 		// Output Generation
 		// ========================
-		String mname = targetMethod.getDeclaringClass().getShortName() + "." + targetMethod.getName();
-		List<Unit> ordered = new ArrayList<>();
-		for (Unit u : body.getUnits()) ordered.add(u);
+		List<Unit> ordered = ctx.units;
 
 		// PTS output - only for units with labels (skip goto/return)
 		Set<Base.ResultTuple> ptsTuples = new HashSet<>();
@@ -1451,53 +2107,111 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 		    Unit u = ordered.get(i);
 		    String label = inLabel.get(u);
 		    if (label == null) continue; // Skip goto/return statements
-		    PointsToFact fact = (PointsToFact) PTS_OUT.get(u);
-		    ptsTuples.addAll(fact.toTuples(mname, label));
+		    PointsToFact fact = res.ptsOut(u);
+		    if (config.reports("PTS")) ptsTuples.addAll(fact.toTuples(mname, label));
+		    if (ptsIndex != null) ptsIndex.add(mname, label, fact);
 		}
-		writeOutput(targetMethod, ptsTuples, "PTS");
 
 		// IA output - for each labeled semantic point, output the fact
 		// For non-conditionals: output OUT fact (state after statement)
-		// For conditionals: output edge facts for each branch
+		// For conditionals: output the edge facts the solver stored for each branch
 		Set<Base.ResultTuple> iaTuples = new HashSet<>();
-		for (int i = 0; i < ordered.size(); i++) {
+		for (int i = 0; config.reports("IA") && i < ordered.size(); i++) {
 		    Unit u = ordered.get(i);
 		    
 		    // Non-conditional statements: use OUT fact
 		    String label = inLabel.get(u);
 		    if (label != null) {
-		        IntervalFact fact = IA_OUT.get(u);
+		        IntervalFact fact = res.iaOut(u);
 		        iaTuples.addAll(fact.toTuples(mname, label));
 		    }
 		    
 		    // Conditional statements: output FALSE branch fact
 		    // TRUE branch facts are output at the target unit position
 		    if (u instanceof IfStmt ifst) {
-		        String falseLabel = branchFalseLabel.get(u);
-		        String trueLabel = branchTrueLabel.get(u);
+		        String falseLabel = res.branchFalseLabel.get(u);
+		        String trueLabel = res.branchTrueLabel.get(u);
 		        
 		        if (falseLabel != null) {
-		            // False branch: use tf_cond(false)
-		            IntervalFact in = IA_IN.get(u);
-		            IntervalFact falseFact = (IntervalFact) in.tf_cond(false, (Stmt) u);
+		            IntervalFact falseFact = res.iaBranchFact(ifst, false);
 		            iaTuples.addAll(falseFact.toTuples(mname, falseLabel));
 		        }
 		        if (trueLabel != null) {
-		            // True branch: use tf_cond(true)
-		            IntervalFact in = IA_IN.get(u);
-		            IntervalFact trueFact = (IntervalFact) in.tf_cond(true, (Stmt) u);
+		            IntervalFact trueFact = res.iaBranchFact(ifst, true);
 		            iaTuples.addAll(trueFact.toTuples(mname, trueLabel));
 		        }
 		    }
 		}
-		if (!iaTuples.isEmpty()) {
-			writeIAOutput(targetMethod, iaTuples);
+
+		// ========================
+		// Client reports (--analyses=...,ESC)
+		// ========================
+		Map<String, List<String>> reports = new LinkedHashMap<>();
+		if (config.runs("ESC")) {
+			Budget.Meter escMeter = Budget.UNLIMITED.meter("ESC");
+			reports.put("ESC", EscapeAnalysis.report(ctx, res, innerClasses, escMeter));
+			escMeter.finish();
+			Budget.recordRun(mname, escMeter);
+		}
+		if (config.runs("ALLOC")) {
+			Budget.Meter allocMeter = Budget.UNLIMITED.meter("ALLOC");
+			reports.put("ALLOC", LoopAllocations.report(ctx, res, innerClasses, allocMeter));
+			allocMeter.finish();
+			Budget.recordRun(mname, allocMeter);
+		}
+		if (config.runs("TRIP")) {
+			Budget.Meter tripMeter = Budget.UNLIMITED.meter("TRIP");
+			reports.put("TRIP", TripCounts.report(ctx, res, tripMeter));
+			tripMeter.finish();
+			Budget.recordRun(mname, tripMeter);
+		}
+		if (config.runs("NPE")) {
+			Budget.Meter npeMeter = Budget.UNLIMITED.meter("NPE");
+			reports.put("NPE", NullChecks.report(ctx, res, npeMeter));
+			npeMeter.finish();
+			Budget.recordRun(mname, npeMeter);
+		}
+		if (config.runs("DEAD")) {
+			Budget.Meter deadMeter = Budget.UNLIMITED.meter("DEAD");
+			reports.put("DEAD", DeadBranches.report(ctx, res, deadMeter));
+			deadMeter.finish();
+			Budget.recordRun(mname, deadMeter);
+		}
+		if (config.runs("CAST")) {
+			Budget.Meter castMeter = Budget.UNLIMITED.meter("CAST");
+			reports.put("CAST", RedundantCasts.report(ctx, res, castMeter));
+			castMeter.finish();
+			Budget.recordRun(mname, castMeter);
+		}
+		return new MethodOutputs(ctx.method, ptsTuples, iaTuples, arrayAccesses, res.sites, reports);
+	}
+
+	// Output files of one method, in the order they were always written
+	static List<OutputFile> encodeOutputs(MethodOutputs o) {
+		List<OutputFile> files = new ArrayList<>();
+		if (config.reports("PTS")) {
+			OutputFile pts = config.deltaOutput ? formatDelta(o.method(), "PTS", o.pts()) : null;
+			files.add((pts != null) ? pts : formatOutput(o.method(), o.pts(), "PTS"));
+		}
+		if (!o.ia().isEmpty()) {
+			OutputFile ia = config.deltaOutput ? formatDelta(o.method(), "IA", o.ia()) : null;
+			files.add((ia != null) ? ia : formatIAOutput(o.method(), o.ia()));
 		}
 
 		// AASC output
-		if (!arrayAccesses.isEmpty()) {
-			writeAASCOutput(targetMethod, arrayAccesses);
+		if (!o.accesses().isEmpty()) {
+			files.add(formatAASCOutput(o.method(), o.accesses()));
+		}
+
+		// Merged abstract objects -> the allocation sites they stand for
+		if (o.sites().hasMerges()) {
+			files.add(formatHeapMapping(o.method(), o.sites()));
+		}
+
+		for (Map.Entry<String, List<String>> r : o.reports().entrySet()) {
+			if (!r.getValue().isEmpty()) files.add(formatReport(o.method(), r.getKey(), r.getValue()));
 		}
+		return files;
 	}
 
 	// Check if array access is provably safe
@@ -1561,7 +2275,59 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 		return false;
 	}
 
+	// --strided: the index, as a strided interval met with its interval, lies in [0, length)
+	// for every array the base may point to
+	private static boolean checkStridedAccessSafe(ArrayRef ar, PointsToFact ptsFact, IntervalFact iaFact,
+	                                              StridedIntervalFact siFact, MethodResult res) {
+		if (!(ar.getBase() instanceof Local bl)) return false;
+		Set<String> arrays = ptsFact.ptsOfLocal(bl.getName());
+		if (arrays.isEmpty() || arrays.contains("null")) return false;
+
+		StridedIntervalFact.Strided index = siFact.valueOf(ar.getIndex());
+		if (index != null && ar.getIndex() instanceof Local il) {
+			Interval iv = iaFact.getInterval(il.getName());
+			if (iv != null) index = index.meet(iv);
+		}
+		if (index == null) return false; // unreachable: leave it to the plain check
+
+		long length = Long.MAX_VALUE;
+		for (String obj : arrays) length = Math.min(length, arrayLength(obj, res));
+		return index.range.lo >= 0 && index.range.hi < length;
+	}
+
+	// Smallest length any allocation site of the array object gives; -1 if a site's length is unknown
+	private static long arrayLength(String obj, MethodResult res) {
+		long min = Long.MAX_VALUE;
+		for (String site : res.sites.members(obj)) {
+			Unit u = res.ctx.siteUnits.get(site);
+			if (!(u instanceof AssignStmt as) || !(as.getRightOp() instanceof NewArrayExpr na)) return -1;
+			long n = -1;
+			if (na.getSize() instanceof IntConstant ic) {
+				n = ic.value;
+			} else if (na.getSize() instanceof Local sl) {
+				Interval iv = res.iaIn(u).getInterval(sl.getName());
+				if (iv != null) n = iv.lo;
+			}
+			if (n < 0) return -1;
+			min = Math.min(min, n);
+		}
+		return min;
+	}
+
 	public static void main(String[] args) throws Exception{
+		// "--key=value" options may appear anywhere; the rest are positional
+		List<String> flags = new ArrayList<>();
+		List<String> positional = new ArrayList<>();
+		for (String a : args) {
+			if (a.startsWith("--")) flags.add(a);
+			else positional.add(a);
+		}
+		config = AnalysisConfig.parse(flags);
+		Budget.reset();
+		MethodContext.clearCache();
+		ptsIndex = config.ptsIndex ? new PointsToIndex() : null;
+		args = positional.toArray(new String[0]);
+
 		String targetDirectory, mClass, tClass;
 		if(args.length == 0){
 			// Default values if no arguments are given for the analysis
@@ -1575,7 +2341,7 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 			tClass=args[2];
 		}
 		else {
-			throw new IllegalArgumentException("Invalid number of arguments. Expected 0 or 3 arguments: <ProcessOrTargetDirectory> <MainClass> <TargetClass>");
+			throw new IllegalArgumentException("Invalid number of arguments. Expected 0 or 3 arguments: <ProcessOrTargetDirectory> <MainClass> <TargetClass> [--option=value ...]");
 		}
 
 		List<String> procDir = new ArrayList<String>();
@@ -1621,6 +2387,16 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 		SLF4J.LOGGER.info("Entry Class: " + entryClass);
 		SLF4J.LOGGER.info("Target Class: " + targetClass);
 
+		if (config.pipelineDepth > 0) {
+			List<SootMethod> methods = new ArrayList<>();
+			for (SootMethod method : targetClass.getMethods()) {
+				if (!method.getName().equals("<init>")) methods.add(method);
+			}
+			Pipeline.run(methods, innerClasses, config.pipelineDepth);
+			writeRunReports(targetClass);
+			return;
+		}
+
 		for (SootMethod method : targetClass.getMethods()) {
 			// Skip drawing CFG for the class constructor
 			if (method.getName().equals("<init>")) {
@@ -1629,13 +2405,43 @@ private static boolean isArrayAccessSafe(Value arrayRef, PointsToFact ptsFact, I
 
 			// Print the method body
 			System.out.println("\n\nMethod: " + method.getName());
-			printInfo(method);
+			MethodContext ctx = MethodContext.of(method);
+			if (ctx != null && !ctx.listing.isEmpty()) System.out.println(ctx.listing);
 
 			// Draw the CFG for each method in the target class
-			drawMethodDependenceGraph(method);
+			drawMethodDependenceGraph(ctx);
 
 			// The function doAnalysis is the entry point for the Kildall's fix-point algorithm over the LatticeElement.
 			doAnalysis(method, targetClass.getMethods(), innerClasses);
 		}
+
+		writeRunReports(targetClass);
+	}
+
+	// Reports that cover the whole class, written once every method is done
+	private static void writeRunReports(SootClass targetClass) {
+		// Methods that hit a budget were degraded to top; list them for follow-up
+		writeBudgetReport(targetClass, Budget.hits());
+		reportSkippedPhases();
+		if (ptsIndex != null && !config.ptsQueries.isEmpty()) {
+			writeQueryReport(targetClass, ptsIndex, config.ptsQueries);
+		}
+	}
+
+	// --analyses: which phases were left out, and the measured time of those that ran
+	private static void reportSkippedPhases() {
+		List<String> skipped = config.skippedPhases();
+		if (skipped.isEmpty()) return;
+		Set<String> methods = new TreeSet<>();
+		// phase -> solver nanos summed over the methods of this run, in the order the phases ran
+		Map<String, Long> ranNanos = new LinkedHashMap<>();
+		for (Budget.Run r : Budget.runs()) {
+			methods.add(r.method());
+			ranNanos.merge(r.phase(), r.nanos(), Long::sum);
+		}
+		List<String> ran = new ArrayList<>();
+		for (Map.Entry<String, Long> e : ranNanos.entrySet()) ran.add(e.getKey() + " " + e.getValue() / 1000 + "us");
+		System.out.println("\n\nAnalyses " + String.join(",", config.analyses) + ": skipped " + String.join(", ", skipped)
+		                   + " in " + methods.size() + " methods; ran " + String.join(", ", ran));
 	}
 }
@@ -0,0 +1,215 @@
+package pav;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Body;
+
+/* Settings for the solver and the driver.
+ * Parsed from "--key" / "--key=value" arguments given next to the positional
+ * <ProcessOrTargetDirectory> <MainClass> <TargetClass> arguments.
+ * Defaults reproduce the plain unit-level analysis.
+ */
+final class AnalysisConfig {
+	// Phase -> phases whose facts it reads: IA needs points-to for field reads, AASC needs both
+	static final Map<String, List<String>> PHASES = new LinkedHashMap<>();
+	static {
+		PHASES.put("PTS", List.of());
+		PHASES.put("IA", List.of("PTS"));
+		PHASES.put("AASC", List.of("PTS", "IA"));
+	}
+
+	// Client reports over the solved facts: client -> phases it reads. Off unless named in --analyses
+	static final Map<String, List<String>> CLIENTS = new LinkedHashMap<>();
+	static {
+		CLIENTS.put("ESC", List.of("PTS"));
+		CLIENTS.put("ALLOC", List.of("PTS"));
+		CLIENTS.put("TRIP", List.of("PTS", "IA"));
+		CLIENTS.put("NPE", List.of("PTS"));
+		CLIENTS.put("DEAD", List.of("PTS", "IA"));
+		CLIENTS.put("CAST", List.of("PTS"));
+	}
+
+	// --analyses=PTS,IA,AASC[,client...]: the outputs to write (all phases, no clients by default)
+	Set<String> analyses = new LinkedHashSet<>(PHASES.keySet());
+	// The selected analyses plus everything they depend on, in PHASES order
+	private Set<String> phases = new LinkedHashSet<>(PHASES.keySet());
+
+	boolean runs(String phase) { return phases.contains(phase); }
+
+	boolean reports(String phase) { return analyses.contains(phase); }
+
+	// Phases left out entirely, in PHASES order
+	List<String> skippedPhases() {
+		List<String> out = new ArrayList<>();
+		for (String p : PHASES.keySet()) if (!phases.contains(p)) out.add(p);
+		return out;
+	}
+
+	// --block-level: solve over BriefBlockGraph blocks, replay units on demand
+	boolean blockLevel = false;
+
+	// --pts-delta: difference propagation in the unit-level points-to worklist
+	boolean ptsDelta = false;
+
+	// --pts-null-refine: refine points-to sets on the edges of null and reference-equality checks
+	boolean ptsNullRefine = false;
+
+	// --pts-strong: strong updates of field slots written through one non-summary object
+	boolean ptsStrong = false;
+
+	// --pts-fi[=N]: flow-insensitive points-to for methods with at least N units
+	// (every method when N is omitted); -1 = off
+	int ptsFiUnits = -1;
+
+	boolean flowInsensitivePts(Body body) {
+		return ptsFiUnits >= 0 && body.getUnits().size() >= ptsFiUnits;
+	}
+
+	// --scc-threads[=N]: solve points-to per CFG strongly connected component on N threads
+	// (all processors when N is omitted); 0 = off
+	int sccThreads = 0;
+
+	// --off-heap: keep the unit-level IN/OUT tables encoded in direct buffers
+	boolean offHeap = false;
+
+	// --pipeline[=DEPTH]: staged driver with queues of DEPTH methods between stages; 0 = sequential
+	int pipelineDepth = 0;
+
+	// --pts-index: build the reverse points-to index (Analysis.ptsIndex) while reporting
+	boolean ptsIndex = false;
+	// --pts-query=OBJ[,OBJ...]: where each object ("newNN" or "null") may be held; implies --pts-index
+	List<String> ptsQueries = new ArrayList<>();
+
+	// --delta-output: write PTS/IA results as per-label changes (*.delta.txt, see DeltaOutput)
+	boolean deltaOutput = false;
+
+	// --ia-heap: interval tracking of int fields through writes (strong for one non-summary object)
+	boolean iaHeap = false;
+
+	// --ia-prune: IA carries no state along branch edges whose condition cannot hold
+	boolean iaPrune = false;
+
+	// --strided: strided-interval pass (StridedIntervalFact) and known array lengths for AASC
+	boolean strided = false;
+
+	// --incremental[=DIR]: reuse the facts of units an edit cannot reach, from snapshots in DIR
+	// (target/pav-incremental when DIR is omitted); null = off
+	String incrementalDir = null;
+
+	// --heap=site|type|kind: how allocation sites map to abstract objects
+	Analysis.PointsToFact.HeapModel heapModel = Analysis.PointsToFact.HeapModel.SITE;
+	// --heap-cap=N: at most N abstract objects per method (0 = no cap)
+	int heapCap = 0;
+
+	// Solver phases that run under a budget (STRIDE is the --strided pass)
+	static final List<String> BUDGET_PHASES = List.of("PTS", "IA", "STRIDE");
+
+	// --budget-ms[.PHASE]=N, --budget-pops[.PHASE]=N, --budget-fact[.PHASE]=N
+	// Limits per method; without a BUDGET_PHASES suffix they apply to every phase.
+	// Index 0 = millis, 1 = pops, 2 = fact size; -1 = not given
+	private final Map<String, long[]> budgetLimits = new HashMap<>();
+
+	Budget budget(String phase) {
+		long[] all = budgetLimits.getOrDefault("*", new long[] {-1, -1, -1});
+		long[] own = budgetLimits.getOrDefault(phase, new long[] {-1, -1, -1});
+		long[] eff = new long[3];
+		for (int i = 0; i < 3; i++) eff[i] = (own[i] >= 0) ? own[i] : Math.max(all[i], 0);
+		return new Budget(eff[0], eff[1], eff[2]);
+	}
+
+	static AnalysisConfig parse(List<String> flags) {
+		AnalysisConfig c = new AnalysisConfig();
+		for (String flag : flags) {
+			String key = flag;
+			String val = null;
+			int eq = flag.indexOf('=');
+			if (eq >= 0) {
+				key = flag.substring(0, eq);
+				val = flag.substring(eq + 1);
+			}
+			switch (key) {
+				case "--block-level" -> c.blockLevel = parseBool(val);
+				case "--pts-delta" -> c.ptsDelta = parseBool(val);
+				case "--pts-null-refine" -> c.ptsNullRefine = parseBool(val);
+				case "--pts-strong" -> c.ptsStrong = parseBool(val);
+				case "--pts-fi" -> c.ptsFiUnits = (val == null) ? 0 : Integer.parseInt(val);
+				case "--scc-threads" -> c.sccThreads = (val == null) ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(val);
+				case "--off-heap" -> c.offHeap = parseBool(val);
+				case "--pipeline" -> c.pipelineDepth = (val == null) ? 4 : Integer.parseInt(val);
+				case "--pts-index" -> c.ptsIndex = parseBool(val);
+				case "--pts-query" -> {
+					c.ptsQueries.addAll(List.of(require(key, val).split(",")));
+					c.ptsIndex = true;
+				}
+				case "--delta-output" -> c.deltaOutput = parseBool(val);
+				case "--ia-heap" -> c.iaHeap = parseBool(val);
+				case "--ia-prune" -> c.iaPrune = parseBool(val);
+				case "--strided" -> c.strided = parseBool(val);
+				case "--incremental" -> c.incrementalDir = (val == null) ? "target/pav-incremental" : val;
+				case "--heap" -> c.heapModel = Analysis.PointsToFact.HeapModel.valueOf(require(key, val).toUpperCase());
+				case "--heap-cap" -> c.heapCap = Integer.parseInt(require(key, val));
+				case "--analyses" -> c.selectAnalyses(require(key, val).split(","));
+				default -> {
+					if (!c.parseBudget(key, val)) throw new IllegalArgumentException("Unknown option: " + flag);
+				}
+			}
+		}
+		return c;
+	}
+
+	private void selectAnalyses(String[] names) {
+		analyses = new LinkedHashSet<>();
+		Set<String> closure = new LinkedHashSet<>();
+		for (String n : names) {
+			String p = n.trim().toUpperCase();
+			List<String> deps = PHASES.containsKey(p) ? PHASES.get(p) : CLIENTS.get(p);
+			if (deps == null) {
+				Set<String> known = new LinkedHashSet<>(PHASES.keySet());
+				known.addAll(CLIENTS.keySet());
+				throw new IllegalArgumentException("Unknown analysis: " + n + " (expected one of " + known + ")");
+			}
+			analyses.add(p);
+			closure.add(p);
+			closure.addAll(deps); // dependency lists are already transitive
+		}
+		phases = new LinkedHashSet<>();
+		for (String p : PHASES.keySet()) if (closure.contains(p)) phases.add(p);
+		for (String p : CLIENTS.keySet()) if (closure.contains(p)) phases.add(p);
+	}
+
+	private boolean parseBudget(String key, String val) {
+		String phase = "*";
+		int dot = key.indexOf('.');
+		if (dot >= 0) {
+			phase = key.substring(dot + 1).toUpperCase();
+			key = key.substring(0, dot);
+		}
+		int slot;
+		switch (key) {
+			case "--budget-ms" -> slot = 0;
+			case "--budget-pops" -> slot = 1;
+			case "--budget-fact" -> slot = 2;
+			default -> { return false; }
+		}
+		if (!phase.equals("*") && !BUDGET_PHASES.contains(phase)) {
+			throw new IllegalArgumentException("Unknown budget phase: " + phase + " (expected one of " + BUDGET_PHASES + ")");
+		}
+		budgetLimits.computeIfAbsent(phase, k -> new long[] {-1, -1, -1})[slot] = Long.parseLong(require(key, val));
+		return true;
+	}
+
+	private static String require(String key, String val) {
+		if (val == null || val.isEmpty()) throw new IllegalArgumentException("Missing value for " + key);
+		return val;
+	}
+
+	private static boolean parseBool(String val) {
+		return val == null || Boolean.parseBoolean(val);
+	}
+}
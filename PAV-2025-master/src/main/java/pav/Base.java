@@ -15,7 +15,6 @@ import soot.SootMethod;
 import soot.Unit;
 import soot.UnitPrinter;
 import soot.jimple.Stmt;
-import soot.toolkits.graph.ExceptionalUnitGraph;
 import soot.util.cfgcmd.CFGToDotGraph;
 import soot.util.dot.DotGraph;
 
@@ -101,40 +100,61 @@ public class Base {
 	}
 
 	// Public functions for printing CFG and method info
-	public static void drawMethodDependenceGraph(SootMethod method) {
+	static void drawMethodDependenceGraph(MethodContext ctx) {
+		DotGraph cfgDot = buildMethodDependenceGraph(ctx);
+		if (cfgDot != null) {
+			String msg = renderMethodDependenceGraph(ctx.method, cfgDot);
+			if (msg != null) System.out.println(msg);
+		}
+	}
+
+	// Builds the dot graph of the CFG the solvers use (needs Soot); null for methods without a body
+	static DotGraph buildMethodDependenceGraph(MethodContext ctx) {
+		if (ctx == null) return null;
+		CFGToDotGraph cfgForMethod = new CFGToDotGraph();
+		return cfgForMethod.drawCFG(ctx.cfg, ctx.body);
+	}
+
+	// Writes the dot file and, if Graphviz is installed, the PNG (no Soot access).
+	// Returns the message to print, or null.
+	public static String renderMethodDependenceGraph(SootMethod method, DotGraph cfgDot) {
 		String outputDirectory = "output/";
-		if (!method.isPhantom() && method.isConcrete()) {
-			Body body = method.retrieveActiveBody();
-			ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
-
-			// Output the CFG to a dot file
-			String dotFile = outputDirectory + method.getName() + ".dot";
-			CFGToDotGraph cfgForMethod = new CFGToDotGraph();
-			cfgForMethod.drawCFG(graph);
-			DotGraph cfgDot =  cfgForMethod.drawCFG(graph);
-			cfgDot.plot(dotFile);
-
-			// Create PNG from these dotfiles if Graphviz is installed
-			if(isGraphvizInstalled()) {
-				String pngFile = outputDirectory + method.getName() + ".png";
-				boolean success = generatePngFromDot(dotFile, pngFile);
-				if (!success) {
-				    System.out.println("Failed to create PNG from DOT");
-				}
-			} else {
-			    System.out.println("Graphviz is not installed or not in PATH");
+
+		// Output the CFG to a dot file
+		String dotFile = outputDirectory + method.getName() + ".dot";
+		cfgDot.plot(dotFile);
+
+		// Create PNG from these dotfiles if Graphviz is installed
+		if(isGraphvizInstalled()) {
+			String pngFile = outputDirectory + method.getName() + ".png";
+			boolean success = generatePngFromDot(dotFile, pngFile);
+			if (!success) {
+			    return "Failed to create PNG from DOT";
 			}
+			return null;
 		}
+		return "Graphviz is not installed or not in PATH";
 	}
 
 	public static void printUnit(int lineno, Body b, Unit u) {
+		System.out.println(formatUnit(lineno, b, u));
+	}
+
+	public static String formatUnit(int lineno, Body b, Unit u) {
 		UnitPrinter up = new NormalUnitPrinter(b);
 		u.toString(up);
 		String linenostr = String.format("%02d", lineno) + ": ";
-		System.out.println(linenostr + up.toString());
+		return linenostr + up.toString();
 	}
 
 	public static void printInfo(SootMethod entryMethod) {
+		String info = formatInfo(entryMethod);
+		if (!info.isEmpty()) System.out.println(info);
+	}
+
+	// The numbered Jimple listing printInfo shows, one line per statement
+	public static String formatInfo(SootMethod entryMethod) {
+		StringBuilder sb = new StringBuilder();
 		if (!entryMethod.isPhantom() && entryMethod.isConcrete()) {
 			Body body = entryMethod.retrieveActiveBody();
 	
@@ -143,9 +163,11 @@ public class Base {
 				if (!(u instanceof Stmt)) {
 					continue;
 				}
-				printUnit(lineno, body, u);
+				if (lineno > 0) sb.append(System.lineSeparator());
+				sb.append(formatUnit(lineno, body, u));
 				lineno++;
 			}
 		}
+		return sb.toString();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.IntervalFact;
+import pav.Analysis.PointsToFact;
+import pav.Analysis.UnitFacts;
+
+import soot.Body;
+import soot.SootClass;
+import soot.Unit;
+import soot.jimple.IfStmt;
+import soot.toolkits.graph.Block;
+import soot.toolkits.graph.BriefBlockGraph;
+import soot.toolkits.graph.UnitGraph;
+
+/* Block-level Kildall solver over Soot's BriefBlockGraph.
+ * Facts are kept only at block entry and exit (plus the IfStmt edge facts,
+ * which always sit on block tails). Per-unit facts are regenerated by
+ * replaying the transfer functions within a block when a client asks.
+ * Joins still walk the unit-level predecessors of each block head, in the
+ * same order as the unit-level solver, so widening sees the same operands.
+ */
+final class BlockSolver {
+
+	private BlockSolver() {}
+
+	static UnitFacts solve(MethodContext ctx, Map<String, SootClass> innerClasses,
+	                       Budget.Meter ptsMeter, Budget.Meter iaMeter) {
+		Body body = ctx.body;
+		UnitGraph cfg = ctx.cfg;
+		BriefBlockGraph bg = new BriefBlockGraph(body);
+		List<Block> blocks = bg.getBlocks();
+		Map<Unit, Block> blockOf = new HashMap<>();
+		for (Block b : blocks) {
+			for (Unit u : b) blockOf.put(u, b);
+		}
+
+		// ========================
+		// 1. Points-To Analysis
+		// ========================
+		LatticeElement ptsBottom = PointsToFact.bottom(ctx.localTypes, ctx.sites);
+		Map<Block, LatticeElement> ptsEntry = new HashMap<>();
+		Map<Block, LatticeElement> ptsExit = new HashMap<>();
+		for (Block b : blocks) {
+			ptsEntry.put(b, ptsBottom);
+			ptsExit.put(b, ptsBottom);
+		}
+
+		Deque<Block> wl = new ArrayDeque<>(blocks);
+		while (!wl.isEmpty()) {
+			if (!ptsMeter.pop()) break;
+			Block b = wl.removeFirst();
+
+			// Every predecessor of a block head is the tail of its own block
+			LatticeElement newIn;
+			List<Unit> preds = cfg.getPredsOf(b.getHead());
+			if (preds.isEmpty()) {
+				newIn = ptsEntry.get(b);
+			} else {
+				newIn = Analysis.ptsEdge(cfg, preds.get(0), b.getHead(), ptsExit.get(blockOf.get(preds.get(0))));
+				for (int i = 1; i < preds.size(); i++) {
+					newIn = newIn.join_op(Analysis.ptsEdge(cfg, preds.get(i), b.getHead(), ptsExit.get(blockOf.get(preds.get(i)))));
+				}
+			}
+			if (!newIn.equals(ptsEntry.get(b))) ptsEntry.put(b, newIn);
+
+			LatticeElement out = ptsEntry.get(b);
+			for (Unit u : b) out = Analysis.ptsTransfer(u, out);
+			if (!out.equals(ptsExit.get(b))) {
+				ptsExit.put(b, out);
+				if (ptsMeter.checksFactSize() && !ptsMeter.fits(((PointsToFact) out).size())) break;
+				enqueueSuccs(b, cfg, blockOf, wl);
+			}
+		}
+		ptsMeter.finish();
+		if (ptsMeter.exceeded()) {
+			// Top at every block entry; in-block replay from there stays sound
+			PointsToFact top = PointsToFact.top(body, ctx.sites);
+			for (Block b : blocks) {
+				ptsEntry.put(b, top);
+				ptsExit.put(b, top);
+			}
+		}
+
+		// Nothing selected by --analyses reads interval facts: build no IA tables at all
+		if (!Analysis.config.runs("IA")) return new BlockFacts(blockOf, ptsEntry, Map.of(), Map.of(), innerClasses);
+
+		// ========================
+		// 2. Interval Analysis
+		// ========================
+		IntervalFact iaBottom = IntervalFact.bottom(ctx.localTypes);
+		Map<Block, IntervalFact> iaEntry = new HashMap<>();
+		// Exit facts keyed by the block tail, so the shared join can look them up by predecessor unit
+		Map<Unit, IntervalFact> iaTailOut = new HashMap<>();
+		Map<Unit, Map<Unit, IntervalFact>> edgeFacts = new HashMap<>();
+		for (Block b : blocks) {
+			iaEntry.put(b, iaBottom);
+			iaTailOut.put(b.getTail(), iaBottom);
+		}
+
+		Set<Unit> loopHeaders = ctx.loopHeaders;
+		Set<String> paramLocals = ctx.intParamLocals;
+
+		wl.clear();
+		wl.addAll(blocks);
+		while (!wl.isEmpty()) {
+			if (!iaMeter.pop()) break;
+			Block b = wl.removeFirst();
+			Unit head = b.getHead();
+			List<PointsToFact> ptsIn = replayPts(b, ptsEntry.get(b));
+
+			IntervalFact newIn;
+			List<Unit> preds = cfg.getPredsOf(head);
+			if (preds.isEmpty()) {
+				newIn = Analysis.iaEntryFact(iaEntry.get(b), ptsIn.get(0), paramLocals);
+			} else {
+				newIn = Analysis.iaJoinPreds(head, preds, edgeFacts, iaTailOut, loopHeaders.contains(head), iaBottom);
+				newIn = newIn.withPtsFact(ptsIn.get(0));
+			}
+			if (!newIn.equals(iaEntry.get(b))) iaEntry.put(b, newIn);
+
+			IntervalFact in = iaEntry.get(b);
+			IntervalFact out = null;
+			int k = 0;
+			for (Unit u : b) {
+				if (k > 0) in = out.withPtsFact(ptsIn.get(k));
+				out = Analysis.iaTransfer(u, in, ptsIn.get(k), innerClasses);
+				k++;
+			}
+
+			Unit tail = b.getTail();
+			boolean changed = !out.equals(iaTailOut.get(tail));
+			if (changed) {
+				iaTailOut.put(tail, out);
+				if (iaMeter.checksFactSize() && !iaMeter.fits(out.size())) break;
+			}
+
+			if (tail instanceof IfStmt ifst) {
+				for (Unit s : Analysis.updateBranchEdges(ifst, in, out, cfg, edgeFacts)) {
+					Block sb = blockOf.get(s);
+					if (!wl.contains(sb)) wl.add(sb);
+				}
+			} else if (changed) {
+				enqueueSuccs(b, cfg, blockOf, wl);
+			}
+		}
+
+		iaMeter.finish();
+		if (iaMeter.exceeded()) {
+			IntervalFact top = IntervalFact.top(body, Analysis.heapKeys(iaTailOut.values()));
+			for (Block b : blocks) {
+				iaEntry.put(b, top.withPtsFact((PointsToFact) ptsEntry.get(b)));
+				iaTailOut.put(b.getTail(), top);
+			}
+			Analysis.degradeEdges(body, cfg, edgeFacts, top);
+		}
+
+		return new BlockFacts(blockOf, ptsEntry, iaEntry, edgeFacts, innerClasses);
+	}
+
+	private static void enqueueSuccs(Block b, UnitGraph cfg, Map<Unit, Block> blockOf, Deque<Block> wl) {
+		for (Unit s : cfg.getSuccsOf(b.getTail())) {
+			Block sb = blockOf.get(s);
+			if (!wl.contains(sb)) wl.add(sb);
+		}
+	}
+
+	// IN fact of every unit in the block, starting from the block entry fact
+	private static List<PointsToFact> replayPts(Block b, LatticeElement entry) {
+		List<PointsToFact> ins = new ArrayList<>();
+		LatticeElement cur = entry;
+		for (Unit u : b) {
+			ins.add((PointsToFact) cur);
+			cur = Analysis.ptsTransfer(u, cur);
+		}
+		return ins;
+	}
+
+	/* ---------------------------------------------------------
+	 * Per-unit view over block facts. Only the most recently
+	 * queried block is kept expanded; clients walk units in
+	 * order, so each block is replayed about once.
+	 * --------------------------------------------------------- */
+	static final class BlockFacts implements UnitFacts {
+		private final Map<Unit, Block> blockOf;
+		private final Map<Block, LatticeElement> ptsEntry;
+		private final Map<Block, IntervalFact> iaEntry;
+		private final Map<Unit, Map<Unit, IntervalFact>> edgeFacts;
+		private final Map<String, SootClass> innerClasses;
+
+		private Block replayed;
+		private final Map<Unit, PointsToFact> ptsIn = new HashMap<>();
+		private final Map<Unit, PointsToFact> ptsOut = new HashMap<>();
+		private final Map<Unit, IntervalFact> iaIn = new HashMap<>();
+		private final Map<Unit, IntervalFact> iaOut = new HashMap<>();
+
+		BlockFacts(Map<Unit, Block> blockOf, Map<Block, LatticeElement> ptsEntry, Map<Block, IntervalFact> iaEntry,
+		           Map<Unit, Map<Unit, IntervalFact>> edgeFacts, Map<String, SootClass> innerClasses) {
+			this.blockOf = blockOf;
+			this.ptsEntry = ptsEntry;
+			this.iaEntry = iaEntry;
+			this.edgeFacts = edgeFacts;
+			this.innerClasses = innerClasses;
+		}
+
+		private void replay(Unit u) {
+			Block b = blockOf.get(u);
+			if (b == replayed) return;
+			ptsIn.clear();
+			ptsOut.clear();
+			iaIn.clear();
+			iaOut.clear();
+
+			LatticeElement pts = ptsEntry.get(b);
+			IntervalFact ia = iaEntry.get(b);
+			boolean first = true;
+			for (Unit v : b) {
+				PointsToFact pin = (PointsToFact) pts;
+				ptsIn.put(v, pin);
+				pts = Analysis.ptsTransfer(v, pts);
+				ptsOut.put(v, (PointsToFact) pts);
+				if (ia != null) { // null when interval analysis did not run
+					if (!first) ia = ia.withPtsFact(pin);
+					iaIn.put(v, ia);
+					ia = Analysis.iaTransfer(v, ia, pin, innerClasses);
+					iaOut.put(v, ia);
+				}
+				first = false;
+			}
+			replayed = b;
+		}
+
+		@Override public PointsToFact ptsIn(Unit u) { replay(u); return ptsIn.get(u); }
+		@Override public PointsToFact ptsOut(Unit u) { replay(u); return ptsOut.get(u); }
+		@Override public IntervalFact iaIn(Unit u) { replay(u); return iaIn.get(u); }
+		@Override public IntervalFact iaOut(Unit u) { replay(u); return iaOut.get(u); }
+
+		@Override
+		public IntervalFact iaEdge(Unit from, Unit to) {
+			Map<Unit, IntervalFact> edges = edgeFacts.get(from);
+			return (edges != null) ? edges.get(to) : null;
+		}
+	}
+}
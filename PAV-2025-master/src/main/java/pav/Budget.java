@@ -0,0 +1,110 @@
+package pav;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/* Per-method, per-phase resource limits for the worklist solvers.
+ * A limit of 0 means unlimited. A solver ticks its Meter once per worklist
+ * pop; when any limit is exceeded it stops iterating and degrades its facts
+ * soundly (see Analysis.solveUnits). Every hit is recorded so the driver can
+ * report which methods were degraded and why.
+ */
+final class Budget {
+	final long maxMillis;
+	final long maxPops;
+	final long maxFactSize;
+
+	static final Budget UNLIMITED = new Budget(0, 0, 0);
+
+	Budget(long maxMillis, long maxPops, long maxFactSize) {
+		this.maxMillis = maxMillis;
+		this.maxPops = maxPops;
+		this.maxFactSize = maxFactSize;
+	}
+
+	boolean checksFactSize() { return maxFactSize > 0; }
+
+	Meter meter(String phase) { return new Meter(phase, this); }
+
+	/* Pops, wall time and the first exceeded limit of one phase run */
+	static final class Meter {
+		final String phase;
+		private final Budget budget;
+		private final long startNanos = System.nanoTime();
+		private long endNanos = -1;
+		long pops;
+		String exceeded; // e.g. "pops>1000"; null while within budget
+
+		private Meter(String phase, Budget budget) {
+			this.phase = phase;
+			this.budget = budget;
+		}
+
+		// Count one worklist pop; false once the phase is over budget
+		boolean pop() {
+			pops++;
+			if (budget.maxPops > 0 && pops > budget.maxPops) {
+				exceeded = "pops>" + budget.maxPops;
+			} else if (budget.maxMillis > 0 && elapsedMillis() > budget.maxMillis) {
+				exceeded = "time>" + budget.maxMillis + "ms";
+			}
+			return exceeded == null;
+		}
+
+		// Check the size of a freshly computed fact; false if it is too large
+		boolean fits(int factSize) {
+			if (budget.maxFactSize > 0 && factSize > budget.maxFactSize) {
+				exceeded = "fact>" + budget.maxFactSize;
+			}
+			return exceeded == null;
+		}
+
+		boolean exceeded() { return exceeded != null; }
+
+		boolean checksFactSize() { return budget.checksFactSize(); }
+
+		void finish() { endNanos = System.nanoTime(); }
+
+		long elapsedNanos() { return ((endNanos < 0) ? System.nanoTime() : endNanos) - startNanos; }
+
+		long elapsedMillis() { return elapsedNanos() / 1_000_000L; }
+	}
+
+	/* -------- Record of degraded methods -------- */
+
+	private static final List<String> hits = Collections.synchronizedList(new ArrayList<>());
+
+	static void record(String method, Meter m) {
+		String line = method + ": " + m.phase + ": " + m.exceeded + " (after " + m.pops + " pops, " + m.elapsedMillis() + "ms)";
+		hits.add(line);
+		Base.SLF4J.LOGGER.warn("Budget exceeded, degraded to top: " + line);
+	}
+
+	static List<String> hits() {
+		synchronized (hits) {
+			return new ArrayList<>(hits);
+		}
+	}
+
+	/* -------- Per-phase solver statistics (read by RegressionGate) -------- */
+
+	record Run(String method, String phase, long pops, long nanos) {}
+
+	private static final List<Run> runs = Collections.synchronizedList(new ArrayList<>());
+
+	static void recordRun(String method, Meter m) {
+		runs.add(new Run(method, m.phase, m.pops, m.elapsedNanos()));
+	}
+
+	static List<Run> runs() {
+		synchronized (runs) {
+			return new ArrayList<>(runs);
+		}
+	}
+
+	static void reset() {
+		hits.clear();
+		runs.clear();
+	}
+}
@@ -0,0 +1,61 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.Interval;
+import pav.Analysis.IntervalFact;
+import pav.Analysis.MethodResult;
+
+import soot.Local;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.ConditionExpr;
+import soot.jimple.IfStmt;
+
+/* Constant-branch client over the interval facts (--analyses=...,DEAD).
+ * Lists the two-way IfStmts whose outcome IA fixes, i.e. branches that can be
+ * folded or specialised:
+ *   AlwaysTrue / AlwaysFalse  the operands' intervals before the test decide it
+ *                             (IntervalFact.decide)
+ *   Unreachable               no state reaches the test at all; only with
+ *                             --ia-prune, which stops IA at infeasible edges
+ * One line per branch, in body order:
+ *   Test.m: in05: AlwaysFalse (i0 > 10; i0 = [0, 3])
+ */
+final class DeadBranches {
+
+	private DeadBranches() {}
+
+	static List<String> report(MethodContext ctx, MethodResult res, Budget.Meter meter) {
+		List<String> out = new ArrayList<>();
+		for (Unit u : ctx.units) {
+			if (!(u instanceof IfStmt ifst) || new HashSet<>(ctx.cfg.getSuccsOf(u)).size() < 2) continue;
+			meter.pop();
+			IntervalFact in = res.iaIn(u);
+			if (in == null) continue;
+			String verdict;
+			if (in.isUnreachable()) {
+				verdict = "Unreachable";
+			} else {
+				ConditionExpr ce = (ConditionExpr) ifst.getCondition();
+				if (!IntervalFact.isIntOperand(ce.getOp1()) || !IntervalFact.isIntOperand(ce.getOp2())) continue;
+				Boolean known = IntervalFact.decide(ce, in.intervalOf(ce.getOp1()), in.intervalOf(ce.getOp2()));
+				if (known == null) continue;
+				verdict = (known ? "AlwaysTrue" : "AlwaysFalse") + " (" + ce + operands(in, ce) + ")";
+			}
+			out.add(ctx.name + ": " + ctx.pointOf(u) + ": " + verdict);
+		}
+		return out;
+	}
+
+	// "; x = [a, b]" for each local operand
+	private static String operands(IntervalFact in, ConditionExpr ce) {
+		StringBuilder sb = new StringBuilder();
+		for (Value v : List.of(ce.getOp1(), ce.getOp2())) {
+			if (!(v instanceof Local l)) continue;
+			Interval i = in.intervalOf(l);
+			sb.append("; ").append(l.getName()).append(" = ").append(i.format());
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,109 @@
+package pav;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/* Delta-encoded PTS/IA output (--delta-output) and its decoder.
+ * Instead of every slot at every label, a file holds the full state at the
+ * first program point and then, point by point in label order, only the
+ * locals and heap slots whose reported value changed:
+ *   #PTS <method>            (or #IA)
+ *   @<point>
+ *   =<slot>[TAB<value>]*     the slot now reports these values
+ *   -<slot>                  the slot is no longer reported
+ * Lines are LF-separated. expand() rebuilds the tuples and formats them with
+ * Analysis.ptsText / iaText, giving the normal output file byte for byte.
+ * Command line: java pav.DeltaOutput <file.delta.txt> [<output file>]
+ */
+final class DeltaOutput {
+
+	private DeltaOutput() {}
+
+	record Decoded(String kind, String method, Set<Base.ResultTuple> tuples) {}
+
+	// "in07" < "in10"; anything else after, by name
+	private static final Comparator<String> POINT_ORDER = Comparator
+		.comparingInt((String p) -> p.matches("in\\d+") ? Integer.parseInt(p.substring(2)) : Integer.MAX_VALUE)
+		.thenComparing(Comparator.naturalOrder());
+
+	// Null if the tuples report one slot twice at a point, which the format cannot express
+	static String encode(String kind, String method, Set<Base.ResultTuple> tuples) {
+		Map<String, Map<String, List<String>>> byPoint = new TreeMap<>(POINT_ORDER);
+		for (Base.ResultTuple t : tuples) {
+			List<String> vals = (t.pV == null) ? List.of() : t.pV;
+			if (byPoint.computeIfAbsent(t.p, k -> new TreeMap<>()).put(t.v, vals) != null) return null;
+		}
+
+		StringBuilder sb = new StringBuilder("#").append(kind).append(' ').append(method).append('\n');
+		Map<String, List<String>> prev = Map.of();
+		for (Map.Entry<String, Map<String, List<String>>> point : byPoint.entrySet()) {
+			sb.append('@').append(point.getKey()).append('\n');
+			Map<String, List<String>> cur = point.getValue();
+			for (String slot : prev.keySet()) {
+				if (!cur.containsKey(slot)) sb.append('-').append(slot).append('\n');
+			}
+			for (Map.Entry<String, List<String>> e : cur.entrySet()) {
+				if (e.getValue().equals(prev.get(e.getKey()))) continue;
+				sb.append('=').append(e.getKey());
+				for (String v : e.getValue()) sb.append('\t').append(v);
+				sb.append('\n');
+			}
+			prev = cur;
+		}
+		return sb.toString();
+	}
+
+	static Decoded decode(String text) {
+		String[] lines = text.split("\n");
+		if (lines.length == 0 || !lines[0].startsWith("#")) throw new IllegalArgumentException("Not a delta output file");
+		int sp = lines[0].indexOf(' ');
+		String kind = lines[0].substring(1, sp);
+		String method = lines[0].substring(sp + 1);
+
+		Set<Base.ResultTuple> tuples = new HashSet<>();
+		Map<String, List<String>> state = new TreeMap<>();
+		String point = null;
+		for (int i = 1; i <= lines.length; i++) {
+			String line = (i < lines.length) ? lines[i] : "@"; // flush the last point
+			if (line.isEmpty()) continue;
+			switch (line.charAt(0)) {
+				case '@' -> {
+					if (point != null) {
+						for (Map.Entry<String, List<String>> e : state.entrySet()) {
+							tuples.add(new Base.ResultTuple(method, point, e.getKey(), e.getValue()));
+						}
+					}
+					point = line.substring(1);
+				}
+				case '-' -> state.remove(line.substring(1));
+				case '=' -> {
+					String[] parts = line.substring(1).split("\t", -1);
+					state.put(parts[0], List.of(Arrays.copyOfRange(parts, 1, parts.length)));
+				}
+				default -> throw new IllegalArgumentException("Bad delta line " + i + ": " + line);
+			}
+		}
+		return new Decoded(kind, method, tuples);
+	}
+
+	// The full output file text the delta stands for
+	static String expand(String text) {
+		Decoded d = decode(text);
+		return switch (d.kind()) {
+			case "PTS" -> Analysis.ptsText(d.tuples());
+			case "IA" -> Analysis.iaText(d.tuples());
+			default -> throw new IllegalArgumentException("Unknown output kind: " + d.kind());
+		};
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1 || args.length > 2) {
+			throw new IllegalArgumentException("Usage: pav.DeltaOutput <file.delta.txt> [<output file>]");
+		}
+		String full = expand(Files.readString(Path.of(args[0]), StandardCharsets.UTF_8));
+		if (args.length == 2) Files.writeString(Path.of(args[1]), full, StandardCharsets.UTF_8);
+		else System.out.print(full);
+	}
+}
@@ -0,0 +1,176 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.PointsToFact;
+
+import soot.Body;
+import soot.Local;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.toolkits.graph.UnitGraph;
+
+/* Difference propagation for the points-to worklist.
+ * Each unit keeps mutable IN/OUT maps plus the pending delta its
+ * predecessors produced since its last visit. A visit applies only that
+ * delta: unchanged slots pass through untouched, the killed local (strong
+ * update) is re-evaluated, and weak heap writes add the new right-hand-side
+ * objects. Only the objects new to OUT travel on to the successors.
+ * Every step is a set union, so the result is the same least fixpoint the
+ * full-fact solver reaches. PointsToFacts are materialised at the end as
+ * views over the final maps.
+ */
+final class DeltaPointsTo {
+
+	private DeltaPointsTo() {}
+
+	/* Locals and heap slots, in the same split as PointsToFact */
+	private static final class State {
+		final Map<String, Set<String>> var = new HashMap<>();
+		final Map<String, Set<String>> heap = new HashMap<>();
+
+		boolean isEmpty() { return var.isEmpty() && heap.isEmpty(); }
+
+		int size() {
+			int n = 0;
+			for (Set<String> v : var.values()) n += v.size();
+			for (Set<String> v : heap.values()) n += v.size();
+			return n;
+		}
+	}
+
+	static void solve(Body body, UnitGraph cfg, PointsToFact bottom, Budget.Meter meter,
+	                  Map<Unit, LatticeElement> ptsIn, Map<Unit, LatticeElement> ptsOut) {
+		Map<Unit, State> in = new HashMap<>();
+		Map<Unit, State> out = new HashMap<>();
+		Map<Unit, State> pending = new HashMap<>();
+		Map<Unit, Integer> outSize = new HashMap<>();
+		Set<Unit> visited = new HashSet<>();
+		for (Unit u : body.getUnits()) {
+			in.put(u, new State());
+			out.put(u, new State());
+			outSize.put(u, 0);
+		}
+
+		Deque<Unit> wl = new ArrayDeque<>();
+		Set<Unit> queued = new HashSet<>();
+		for (Unit u : body.getUnits()) {
+			wl.add(u);
+			queued.add(u);
+		}
+
+		while (!wl.isEmpty()) {
+			if (!meter.pop()) break;
+			Unit n = wl.removeFirst();
+			queued.remove(n);
+
+			State IN = in.get(n);
+			State fresh = new State();
+			State d = pending.remove(n);
+			if (d != null) {
+				addNew(IN.var, d.var, fresh.var);
+				addNew(IN.heap, d.heap, fresh.heap);
+			}
+			boolean first = visited.add(n);
+			if (!first && fresh.isEmpty()) continue;
+
+			// The first visit pushes the whole IN (and the gen set); later ones only the delta
+			State dOut = transferDelta(n, bottom.over(IN.var, IN.heap), out.get(n), first ? IN : fresh);
+			if (dOut.isEmpty()) continue;
+
+			State OUT = out.get(n);
+			addNew(OUT.var, dOut.var, null);
+			addNew(OUT.heap, dOut.heap, null);
+			int size = outSize.merge(n, dOut.size(), Integer::sum);
+			if (meter.checksFactSize() && !meter.fits(size)) break;
+
+			for (Unit s : cfg.getSuccsOf(n)) {
+				State ps = pending.computeIfAbsent(s, k -> new State());
+				unionInto(ps.var, dOut.var);
+				unionInto(ps.heap, dOut.heap);
+				if (queued.add(s)) wl.add(s);
+			}
+		}
+
+		for (Unit u : body.getUnits()) {
+			State i = in.get(u);
+			State o = out.get(u);
+			ptsIn.put(u, bottom.over(i.var, i.heap));
+			ptsOut.put(u, bottom.over(o.var, o.heap));
+		}
+	}
+
+	// Objects the unit adds to OUT, given the updated IN (as a fact) and the part of IN to pass through
+	private static State transferDelta(Unit n, PointsToFact inFact, State OUT, State through) {
+		State dOut = new State();
+		String killed = null;
+
+		if (n instanceof AssignStmt as) {
+			Value L = as.getLeftOp();
+			Value R = as.getRightOp();
+			if (L instanceof Local xl) {
+				if (PointsToFact.isPtr(xl.getType())) {
+					// Strong update: x is re-evaluated against the full IN, never passed through
+					killed = xl.getName();
+					addMissing(dOut.var, killed, inFact.evalRhs(R, as), OUT.var);
+				}
+			} else if (L instanceof InstanceFieldRef ifw) {
+				if (PointsToFact.isPtr(ifw.getField().getType()) && ifw.getBase() instanceof Local bl && PointsToFact.isPtr(bl.getType())) {
+					weakWrite(inFact, bl.getName(), ifw.getField().getName(), R, as, OUT, dOut);
+				}
+			} else if (L instanceof ArrayRef arw) {
+				if (arw.getBase() instanceof Local bl && PointsToFact.isPtr(bl.getType())) {
+					weakWrite(inFact, bl.getName(), "[]", R, as, OUT, dOut);
+				}
+			}
+		}
+
+		for (Map.Entry<String, Set<String>> e : through.var.entrySet()) {
+			if (e.getKey().equals(killed)) continue;
+			addMissing(dOut.var, e.getKey(), e.getValue(), OUT.var);
+		}
+		for (Map.Entry<String, Set<String>> e : through.heap.entrySet()) {
+			addMissing(dOut.heap, e.getKey(), e.getValue(), OUT.heap);
+		}
+		return dOut;
+	}
+
+	// o.f ∪= eval(R) for every non-null o in pts(base)
+	private static void weakWrite(PointsToFact inFact, String base, String fname, Value R, AssignStmt st, State OUT, State dOut) {
+		Set<String> bases = inFact.ptsOfLocal(base);
+		if (bases.isEmpty()) return;
+		Set<String> rhs = inFact.evalRhs(R, st);
+		if (rhs.isEmpty()) return;
+		for (String o : bases) {
+			if ("null".equals(o)) continue; // ignore writes through null
+			addMissing(dOut.heap, o + "." + fname, rhs, OUT.heap);
+		}
+	}
+
+	// dst[k] ∪= (vals − have[k])
+	private static void addMissing(Map<String, Set<String>> dst, String k, Set<String> vals, Map<String, Set<String>> have) {
+		Set<String> h = have.getOrDefault(k, Collections.emptySet());
+		for (String v : vals) {
+			if (!h.contains(v)) dst.computeIfAbsent(k, x -> new HashSet<>()).add(v);
+		}
+	}
+
+	// target ∪= src; the genuinely new part is also recorded in fresh (if given)
+	private static void addNew(Map<String, Set<String>> target, Map<String, Set<String>> src, Map<String, Set<String>> fresh) {
+		for (Map.Entry<String, Set<String>> e : src.entrySet()) {
+			Set<String> t = target.computeIfAbsent(e.getKey(), k -> new HashSet<>());
+			for (String v : e.getValue()) {
+				if (t.add(v) && fresh != null) fresh.computeIfAbsent(e.getKey(), k -> new HashSet<>()).add(v);
+			}
+		}
+	}
+
+	private static void unionInto(Map<String, Set<String>> dst, Map<String, Set<String>> src) {
+		for (Map.Entry<String, Set<String>> e : src.entrySet()) {
+			dst.computeIfAbsent(e.getKey(), k -> new HashSet<>()).addAll(e.getValue());
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.MethodResult;
+import pav.Analysis.PointsToFact;
+
+import soot.Body;
+import soot.Local;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.InvokeStmt;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.ReturnStmt;
+import soot.jimple.SpecialInvokeExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.jimple.ThrowStmt;
+
+/* Escape client over the points-to facts (--analyses=...,ESC).
+ * Classifies each allocation site of a method in HotSpot's terms:
+ *   NoEscape      never leaves the method: a scalar replacement candidate
+ *   ArgEscape     passed to a call (as argument or receiver), nothing worse
+ *   GlobalEscape  returned, thrown, stored in a static, stored into an object
+ *                 the method did not allocate (parameter, call result, unknown),
+ *                 or reachable through the heap from an escaping object
+ * A constructor call does not let its receiver escape if the constructor uses
+ * `this` only as a field base, and calls nothing but Object's constructor.
+ * Written as output/<Class>.<method>.ESC.output.txt, one line per site:
+ *   Test.m: new03: GlobalEscape (return)
+ */
+final class EscapeAnalysis {
+
+	private EscapeAnalysis() {}
+
+	enum Kind { NoEscape, ArgEscape, GlobalEscape }
+
+	record Escape(Kind kind, String why) {}
+
+	static List<String> report(MethodContext ctx, MethodResult res, Map<String, SootClass> innerClasses,
+	                           Budget.Meter meter) {
+		Map<String, Escape> esc = classify(ctx, res, innerClasses, meter);
+		List<String> lines = new ArrayList<>();
+		for (Map.Entry<String, Unit> e : ctx.siteUnits.entrySet()) {
+			if (!isAllocation(e.getValue())) continue;
+			Escape x = esc.get(ctx.allocIds().get(e.getValue()));
+			String text = (x == null) ? Kind.NoEscape.name() : x.kind() + " (" + x.why() + ")";
+			lines.add(ctx.name + ": " + e.getKey() + ": " + text);
+		}
+		Collections.sort(lines);
+		return lines;
+	}
+
+	// Abstract object -> how it escapes; objects that do not escape are absent
+	static Map<String, Escape> classify(MethodContext ctx, MethodResult res, Map<String, SootClass> innerClasses,
+	                                    Budget.Meter meter) {
+		Map<String, Escape> esc = new HashMap<>();
+		// Call results come from outside, so whatever they reach is already global
+		for (Map.Entry<Unit, String> e : ctx.allocIds().entrySet()) {
+			if (!isAllocation(e.getKey())) raise(esc, Set.of(e.getValue()), Kind.GlobalEscape, "call result");
+		}
+
+		// Heap edges "obj.f" -> objects, over every program point
+		Map<String, Set<String>> reach = new HashMap<>();
+		for (Unit u : ctx.units) {
+			meter.pop();
+			PointsToFact in = res.ptsIn(u);
+			for (Map.Entry<String, Set<String>> h : res.ptsOut(u).getHeapPts().entrySet()) {
+				String obj = h.getKey().substring(0, h.getKey().indexOf('.'));
+				reach.computeIfAbsent(obj, k -> new HashSet<>()).addAll(h.getValue());
+			}
+			String at = at(ctx, u);
+
+			if (u instanceof ReturnStmt rs) {
+				raise(esc, pts(in, rs.getOp()), Kind.GlobalEscape, "return");
+			} else if (u instanceof ThrowStmt ts) {
+				raise(esc, pts(in, ts.getOp()), Kind.GlobalEscape, "throw");
+			} else if (u instanceof AssignStmt as) {
+				Value L = as.getLeftOp();
+				Set<String> stored = pts(in, as.getRightOp());
+				if (L instanceof StaticFieldRef) {
+					raise(esc, stored, Kind.GlobalEscape, "static field" + at);
+				} else if (L instanceof InstanceFieldRef || L instanceof ArrayRef) {
+					Value base = (L instanceof InstanceFieldRef ifr) ? ifr.getBase() : ((ArrayRef) L).getBase();
+					if (nonNull(pts(in, base)).isEmpty()) raise(esc, stored, Kind.GlobalEscape, "stored into unknown object" + at);
+				}
+			}
+
+			if (!(u instanceof Stmt st) || !st.containsInvokeExpr()) continue;
+			InvokeExpr ie = st.getInvokeExpr();
+			for (Value arg : ie.getArgs()) raise(esc, pts(in, arg), Kind.ArgEscape, "argument" + at);
+			if (ie instanceof InstanceInvokeExpr iie && !(u instanceof InvokeStmt && keepsReceiver(iie, innerClasses))) {
+				raise(esc, pts(in, iie.getBase()), Kind.ArgEscape, "receiver" + at);
+			}
+		}
+
+		// Whatever an escaping object reaches escapes globally
+		Deque<String> wl = new ArrayDeque<>(esc.keySet());
+		while (!wl.isEmpty()) {
+			String o = wl.removeFirst();
+			for (String t : reach.getOrDefault(o, Set.of())) {
+				if ("null".equals(t)) continue;
+				Escape cur = esc.get(t);
+				if (cur != null && cur.kind() == Kind.GlobalEscape) continue;
+				esc.put(t, new Escape(Kind.GlobalEscape, "reachable from " + o));
+				wl.add(t);
+			}
+		}
+		return esc;
+	}
+
+	private static void raise(Map<String, Escape> esc, Set<String> objs, Kind kind, String why) {
+		for (String o : objs) {
+			if ("null".equals(o)) continue;
+			Escape cur = esc.get(o);
+			if (cur == null || cur.kind().compareTo(kind) < 0) esc.put(o, new Escape(kind, why));
+		}
+	}
+
+	private static Set<String> pts(PointsToFact f, Value v) {
+		if (!(v instanceof Local l) || !PointsToFact.isPtr(l.getType())) return Set.of();
+		return f.ptsOfLocal(l.getName());
+	}
+
+	private static Set<String> nonNull(Set<String> objs) {
+		Set<String> out = new HashSet<>(objs);
+		out.remove("null");
+		return out;
+	}
+
+	private static String at(MethodContext ctx, Unit u) {
+		String label = ctx.inLabel.get(u);
+		return (label == null) ? "" : " at " + label;
+	}
+
+	static boolean isAllocation(Unit u) {
+		Value R = ((AssignStmt) u).getRightOp();
+		return R instanceof NewExpr || R instanceof NewArrayExpr || R instanceof NewMultiArrayExpr;
+	}
+
+	// True for `specialinvoke x.<init>(..)` whose constructor cannot leak `this`
+	private static boolean keepsReceiver(InstanceInvokeExpr iie, Map<String, SootClass> innerClasses) {
+		if (Analysis.isObjectInit(iie)) return true;
+		if (!(iie instanceof SpecialInvokeExpr sie) || !sie.getMethod().getName().equals("<init>")) return false;
+		SootMethod init = Analysis.resolveInit(sie, innerClasses);
+		return init != null && init.isConcrete() && !leaksThis(init.retrieveActiveBody());
+	}
+
+	// `this` is used other than as a field base, or the constructor calls out
+	private static boolean leaksThis(Body b) {
+		Local self = b.getThisLocal();
+		for (Unit u : b.getUnits()) {
+			if (u instanceof IdentityStmt) continue;
+			if (u instanceof InvokeStmt is && Analysis.isObjectInit(is.getInvokeExpr())) continue;
+			if (((Stmt) u).containsInvokeExpr()) return true;
+			for (ValueBox vb : u.getUseBoxes()) {
+				if (vb.getValue() == self && !isFieldBase(u, vb)) return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isFieldBase(Unit u, ValueBox vb) {
+		for (ValueBox fb : u.getUseAndDefBoxes()) {
+			if (fb.getValue() instanceof InstanceFieldRef ifr && ifr.getBaseBox() == vb) return true;
+		}
+		return false;
+	}
+}
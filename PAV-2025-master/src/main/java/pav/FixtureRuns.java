@@ -0,0 +1,182 @@
+package pav;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/* Fixture runs of the regression gate (RegressionGate step 4).
+ * Each run analyses the fixture class test.Probe with its flags and compares
+ * every Probe output, byte for byte, with what the run is expected to write:
+ *   own run     regression/default/ overlaid with regression/<run>/, which
+ *               holds only the files the flags change
+ *   sameAs run  exactly what run sameAs is expected to write: for engines and
+ *               stores that must not change any output
+ * Delta files (--delta-output) are expanded before comparing. --update
+ * rewrites regression/default/ and the overlays; a sameAs run that diverges
+ * still fails. The Probe outputs are removed from output/ after each run.
+ */
+final class FixtureRuns {
+	static final Path DIR = Path.of("regression");
+	private static final String DEFAULT = "default";
+
+	// Fixture class for the opt-in flags, engines and client reports
+	static final String[] PROBE = {"target/classes/test/", "Probe", "Probe"};
+
+	// Snapshot directory of the --incremental runs, emptied before the cold run
+	private static final Path INCREMENTAL = Path.of("target", "pav-gate-incremental");
+
+	// Every opt-in flag that changes a fact, and every client report
+	private static final String[] FEATURES = {"--strided", "--pts-null-refine", "--ia-heap", "--pts-strong", "--ia-prune",
+	                                          "--analyses=PTS,IA,AASC,ESC,ALLOC,TRIP,NPE,DEAD,CAST"};
+
+	record Run(String name, List<String> flags, String sameAs) {}
+
+	static final List<Run> RUNS = new ArrayList<>();
+	static {
+		own(DEFAULT);
+		own("strided", "--strided");
+		own("pts-null-refine", "--pts-null-refine");
+		own("ia-heap", "--ia-heap");
+		own("pts-strong", "--pts-strong");
+		own("clients", "--analyses=PTS,IA,AASC,ESC,ALLOC,TRIP,NPE,DEAD,CAST");
+		own("ia-prune", "--ia-prune", "--analyses=PTS,IA,AASC,DEAD");
+		same("off-heap-prune", "ia-prune", "--ia-prune", "--analyses=PTS,IA,AASC,DEAD", "--off-heap");
+		own("pts-fi", "--pts-fi");
+		own("heap-type", "--heap=type");
+		own("heap-kind", "--heap=kind");
+		own("heap-cap", "--heap-cap=2");
+		own("pts-query", "--pts-query=new00,null");
+		own("features", FEATURES);
+		// Engines and stores: every output must match the run without them
+		for (String base : List.of(DEFAULT, "features")) {
+			String[] flags = (base.equals(DEFAULT)) ? new String[0] : FEATURES;
+			String suffix = (base.equals(DEFAULT)) ? "" : "-features";
+			same("block-level" + suffix, base, with(flags, "--block-level"));
+			same("pts-delta" + suffix, base, with(flags, "--pts-delta"));
+			same("scc-threads" + suffix, base, with(flags, "--scc-threads=2"));
+			same("off-heap" + suffix, base, with(flags, "--off-heap"));
+			same("pipeline" + suffix, base, with(flags, "--pipeline=2"));
+			same("pts-index" + suffix, base, with(flags, "--pts-index"));
+			same("delta-output" + suffix, base, with(flags, "--delta-output"));
+			same("incremental-cold" + suffix, base, with(flags, "--incremental=" + INCREMENTAL.resolve(base)));
+			same("incremental-warm" + suffix, base, with(flags, "--incremental=" + INCREMENTAL.resolve(base)));
+		}
+	}
+
+	private FixtureRuns() {}
+
+	private static void own(String name, String... flags) {
+		RUNS.add(new Run(name, List.of(flags), null));
+	}
+
+	private static void same(String name, String sameAs, String... flags) {
+		RUNS.add(new Run(name, List.of(flags), sameAs));
+	}
+
+	private static String[] with(String[] flags, String flag) {
+		String[] all = Arrays.copyOf(flags, flags.length + 1);
+		all[flags.length] = flag;
+		return all;
+	}
+
+	// Runs every entry of RUNS; returns the number of outputs written
+	static int check(boolean update, List<String> failures) throws Exception {
+		// run name -> output file name -> expected bytes
+		Map<String, Map<String, byte[]>> expected = new HashMap<>();
+		deleteTree(INCREMENTAL);
+		int outputs = 0;
+		for (Run r : RUNS) {
+			Map<String, byte[]> got = analyse(r.flags());
+			if (update && r.sameAs() == null) write(r.name(), got);
+			Map<String, byte[]> want = (r.sameAs() != null) ? expected.get(r.sameAs()) : load(r.name());
+			expected.put(r.name(), want);
+			String where = r.name() + ((r.sameAs() != null) ? " (as " + r.sameAs() + ")" : "") + " " + r.flags();
+			for (Map.Entry<String, byte[]> e : want.entrySet()) {
+				byte[] g = got.get(e.getKey());
+				if (g == null) failures.add(e.getKey() + ": not written by " + where);
+				else if (!Arrays.equals(e.getValue(), g)) failures.add(e.getKey() + ": differs in " + where);
+			}
+			for (String f : got.keySet()) {
+				if (!want.containsKey(f)) failures.add(f + ": not expected from " + where);
+			}
+			outputs += got.size();
+		}
+		return outputs;
+	}
+
+	// Output file name -> contents of one Analysis run on PROBE
+	private static Map<String, byte[]> analyse(List<String> flags) throws Exception {
+		List<String> args = new ArrayList<>(List.of(PROBE));
+		args.addAll(flags);
+		removeProbeOutputs();
+		Analysis.main(args.toArray(new String[0]));
+		Map<String, byte[]> got = new TreeMap<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(RegressionGate.OUTPUT, PROBE[2] + ".*.txt")) {
+			for (Path p : ds) {
+				String name = p.getFileName().toString();
+				if (name.endsWith(".output.txt")) {
+					got.put(name, Files.readAllBytes(p));
+				} else if (name.endsWith(".delta.txt")) {
+					String full = DeltaOutput.expand(Files.readString(p, StandardCharsets.UTF_8));
+					got.put(name.replace(".delta.txt", ".output.txt"), full.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+		}
+		removeProbeOutputs();
+		return got;
+	}
+
+	// Expected outputs of an own run: the default files, then its overlay
+	private static Map<String, byte[]> load(String name) throws IOException {
+		Map<String, byte[]> files = read(DIR.resolve(DEFAULT));
+		if (!name.equals(DEFAULT)) files.putAll(read(DIR.resolve(name)));
+		return files;
+	}
+
+	// The default run keeps every file; other runs keep those that differ from the default
+	private static void write(String name, Map<String, byte[]> got) throws IOException {
+		Path dir = DIR.resolve(name);
+		Map<String, byte[]> base = name.equals(DEFAULT) ? Map.of() : read(DIR.resolve(DEFAULT));
+		if (Files.isDirectory(dir)) {
+			try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.output.txt")) {
+				for (Path p : ds) Files.delete(p);
+			}
+		}
+		for (Map.Entry<String, byte[]> e : got.entrySet()) {
+			if (Arrays.equals(base.get(e.getKey()), e.getValue())) continue;
+			Files.createDirectories(dir);
+			Files.write(dir.resolve(e.getKey()), e.getValue());
+		}
+		if (Files.isDirectory(dir)) {
+			try (Stream<Path> s = Files.list(dir)) {
+				if (s.findAny().isEmpty()) Files.delete(dir);
+			}
+		}
+	}
+
+	private static Map<String, byte[]> read(Path dir) throws IOException {
+		Map<String, byte[]> files = new TreeMap<>();
+		if (!Files.isDirectory(dir)) return files;
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.output.txt")) {
+			for (Path p : ds) files.put(p.getFileName().toString(), Files.readAllBytes(p));
+		}
+		return files;
+	}
+
+	private static void deleteTree(Path root) throws IOException {
+		if (!Files.exists(root)) return;
+		try (Stream<Path> s = Files.walk(root)) {
+			for (Path p : s.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+		}
+	}
+
+	private static void removeProbeOutputs() throws IOException {
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(RegressionGate.OUTPUT, PROBE[2] + ".*")) {
+			for (Path p : ds) Files.delete(p);
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.PointsToFact;
+
+import soot.Body;
+import soot.Local;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InvokeExpr;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.NullConstant;
+
+/* Flow-insensitive (Andersen-style) points-to for one method.
+ * Every pointer assignment becomes a constraint between nodes (locals and
+ * heap slots "obj.f" / "obj.[]"), using the same RHS cases as
+ * PointsToFact.evalRhs: null, locals, casts, allocations and
+ * reference-returning calls as base objects, plus loads and stores that
+ * add copy edges as their base sets grow. Copy-edge cycles are found
+ * lazily (an edge whose two ends end up with equal sets triggers a search
+ * back to its source) and collapsed into one node.
+ * The solution over-approximates the flow-sensitive fact at every program
+ * point, and the same fact is reported at every label.
+ */
+final class FlowInsensitivePointsTo {
+
+	private FlowInsensitivePointsTo() {}
+
+	private static final class Node {
+		Node parent = this;               // union-find; a representative points to itself
+		final Set<String> pts = new HashSet<>();
+		Set<String> done = new HashSet<>(); // part of pts already pushed along the edges
+		final Set<Node> succ = new HashSet<>();
+		final List<Load> loads = new ArrayList<>();   // this node is the base of x = this.f
+		final List<Store> stores = new ArrayList<>(); // this node is the base of this.f = y
+		boolean queued;
+	}
+
+	private record Load(String field, Node dst) {}
+
+	private record Store(String field, Node src) {}
+
+	private static final class Graph {
+		final Map<String, Node> locals = new HashMap<>();
+		final Map<String, Node> slots = new HashMap<>();
+		final Deque<Node> wl = new ArrayDeque<>();
+		// (src, dst) edges already searched for a cycle
+		final Set<List<Node>> checked = new HashSet<>();
+		long added; // objects added to any node; a lower bound on the final fact size
+
+		Node local(String name) { return locals.computeIfAbsent(name, k -> new Node()); }
+
+		Node slot(String obj, String field) { return slots.computeIfAbsent(obj + "." + field, k -> new Node()); }
+
+		void enqueue(Node n) {
+			if (!n.queued) {
+				n.queued = true;
+				wl.add(n);
+			}
+		}
+
+		boolean addAll(Node n, Collection<String> objs) {
+			int before = n.pts.size();
+			if (!n.pts.addAll(objs)) return false;
+			added += n.pts.size() - before;
+			enqueue(n);
+			return true;
+		}
+
+		// a -> b; only what a already pushed is copied here, the rest follows when a is popped
+		void addEdge(Node a, Node b) {
+			a = find(a);
+			b = find(b);
+			if (a == b) return;
+			if (a.succ.add(b)) addAll(b, a.done);
+		}
+	}
+
+	private static Node find(Node n) {
+		while (n.parent != n) {
+			n.parent = n.parent.parent;
+			n = n.parent;
+		}
+		return n;
+	}
+
+	static void solve(Body body, PointsToFact bottom, Map<Unit, String> allocIds, Budget.Meter meter,
+	                  Map<Unit, LatticeElement> ptsIn, Map<Unit, LatticeElement> ptsOut) {
+		Graph g = new Graph();
+		Set<String> assigned = new LinkedHashSet<>();
+
+		// ---- constraints ----
+		for (Unit u : body.getUnits()) {
+			if (!(u instanceof AssignStmt as)) continue;
+			Value L = as.getLeftOp();
+			Value R = as.getRightOp();
+
+			if (L instanceof Local xl) {
+				if (!PointsToFact.isPtr(xl.getType())) continue;
+				assigned.add(xl.getName());
+				addRhs(g, R, as, g.local(xl.getName()), allocIds);
+			} else if (L instanceof InstanceFieldRef ifw) {
+				if (!PointsToFact.isPtr(ifw.getField().getType())) continue;
+				if (!(ifw.getBase() instanceof Local bl) || !PointsToFact.isPtr(bl.getType())) continue;
+				g.local(bl.getName()).stores.add(new Store(ifw.getField().getName(), rhsNode(g, R, as, allocIds)));
+			} else if (L instanceof ArrayRef arw) {
+				if (!(arw.getBase() instanceof Local bl) || !PointsToFact.isPtr(bl.getType())) continue;
+				g.local(bl.getName()).stores.add(new Store("[]", rhsNode(g, R, as, allocIds)));
+			}
+		}
+
+		// ---- propagation ----
+		for (Node n : g.locals.values()) if (!n.pts.isEmpty()) g.enqueue(n);
+		for (Node n : g.slots.values()) if (!n.pts.isEmpty()) g.enqueue(n);
+
+		while (!g.wl.isEmpty()) {
+			if (!meter.pop()) break;
+			Node popped = g.wl.removeFirst();
+			popped.queued = false;
+			Node n = find(popped);
+			if (n != popped) continue; // merged; the representative was queued instead
+
+			Set<String> delta = new HashSet<>(n.pts);
+			delta.removeAll(n.done);
+			if (delta.isEmpty()) continue;
+			n.done.addAll(delta);
+
+			for (Load ld : n.loads) {
+				for (String o : delta) {
+					if ("null".equals(o)) g.addAll(find(ld.dst()), Set.of("null")); // reading through possible null
+					else g.addEdge(g.slot(o, ld.field()), ld.dst());
+				}
+			}
+			for (Store st : n.stores) {
+				for (String o : delta) {
+					if (!"null".equals(o)) g.addEdge(st.src(), g.slot(o, st.field())); // ignore writes through null
+				}
+			}
+
+			List<Node> cycleCandidates = new ArrayList<>();
+			for (Node s : List.copyOf(n.succ)) {
+				Node m = find(s);
+				if (m == n) continue;
+				g.addAll(m, delta);
+				if (m.pts.equals(n.pts) && g.checked.add(List.of(n, m))) cycleCandidates.add(m);
+			}
+			if (meter.checksFactSize() && !meter.fits((int) Math.min(g.added, Integer.MAX_VALUE))) break;
+
+			for (Node m : cycleCandidates) {
+				Node src = find(n);
+				Node dst = find(m);
+				if (src != dst) collapse(g, src, reachingBack(dst, src));
+			}
+		}
+
+		// ---- one fact for every label ----
+		Map<String, Set<String>> var = new HashMap<>();
+		for (String x : assigned) var.put(x, new HashSet<>(find(g.locals.get(x)).pts));
+		Map<String, Set<String>> heap = new HashMap<>();
+		for (Map.Entry<String, Node> e : g.slots.entrySet()) {
+			Set<String> s = find(e.getValue()).pts;
+			if (!s.isEmpty()) heap.put(e.getKey(), new HashSet<>(s));
+		}
+		PointsToFact fact = bottom.over(var, heap);
+		if (!meter.exceeded() && meter.checksFactSize()) meter.fits(fact.size());
+		for (Unit u : body.getUnits()) {
+			ptsIn.put(u, fact);
+			ptsOut.put(u, fact);
+		}
+	}
+
+	// dst ⊇ eval(R), as constraints
+	private static void addRhs(Graph g, Value R, Unit st, Node dst, Map<Unit, String> allocIds) {
+		if (R instanceof NullConstant) {
+			g.addAll(dst, Set.of("null"));
+		} else if (R instanceof Local yl) {
+			if (PointsToFact.isPtr(yl.getType())) g.addEdge(g.local(yl.getName()), dst);
+		} else if (R instanceof CastExpr ce) {
+			if (PointsToFact.isPtr(ce.getCastType()) && ce.getOp() instanceof Local yl) g.addEdge(g.local(yl.getName()), dst);
+		} else if (R instanceof NewExpr || R instanceof NewArrayExpr || R instanceof NewMultiArrayExpr) {
+			String id = allocIds.get(st);
+			if (id != null) g.addAll(dst, Set.of(id));
+		} else if (R instanceof InstanceFieldRef ifr) {
+			if (PointsToFact.isPtr(ifr.getField().getType()) && ifr.getBase() instanceof Local bl && PointsToFact.isPtr(bl.getType())) {
+				g.local(bl.getName()).loads.add(new Load(ifr.getField().getName(), dst));
+			}
+		} else if (R instanceof ArrayRef arr) {
+			if (arr.getBase() instanceof Local bl && PointsToFact.isPtr(bl.getType())) {
+				g.local(bl.getName()).loads.add(new Load("[]", dst));
+			}
+		} else if (R instanceof InvokeExpr ie) {
+			Type rt = ie.getMethod().getReturnType();
+			String id = allocIds.get(st);
+			if (PointsToFact.isPtr(rt) && id != null) g.addAll(dst, Set.of(id));
+		}
+	}
+
+	// Node holding eval(R): the local itself, or a fresh node for any other RHS
+	private static Node rhsNode(Graph g, Value R, Unit st, Map<Unit, String> allocIds) {
+		if (R instanceof Local yl && PointsToFact.isPtr(yl.getType())) return g.local(yl.getName());
+		Node tmp = new Node();
+		addRhs(g, R, st, tmp, allocIds);
+		if (!tmp.pts.isEmpty()) g.enqueue(tmp);
+		return tmp;
+	}
+
+	// Representatives on a path from `from` back to `to` (to excluded), found by an iterative DFS
+	private static List<Node> reachingBack(Node from, Node to) {
+		List<Node> onCycle = new ArrayList<>();
+		Set<Node> visited = new HashSet<>();
+		Set<Node> reaches = new HashSet<>();
+		Deque<Node> stack = new ArrayDeque<>();
+		Deque<Iterator<Node>> iters = new ArrayDeque<>();
+		visited.add(from);
+		stack.push(from);
+		iters.push(List.copyOf(from.succ).iterator());
+		while (!stack.isEmpty()) {
+			Node v = stack.peek();
+			Iterator<Node> it = iters.peek();
+			if (it.hasNext()) {
+				Node w = find(it.next());
+				if (w == v) continue;
+				if (w == to || reaches.contains(w)) {
+					reaches.add(v);
+				} else if (visited.add(w)) {
+					stack.push(w);
+					iters.push(List.copyOf(w.succ).iterator());
+				}
+			} else {
+				stack.pop();
+				iters.pop();
+				if (reaches.contains(v)) {
+					onCycle.add(v);
+					if (!stack.isEmpty()) reaches.add(stack.peek());
+				}
+			}
+		}
+		return onCycle;
+	}
+
+	// Merge the members into rep; rep keeps only the objects every member already pushed as done
+	private static void collapse(Graph g, Node rep, List<Node> members) {
+		if (members.isEmpty()) return;
+		for (Node v : members) {
+			if (v == rep) continue;
+			v.parent = rep;
+			g.addAll(rep, v.pts);
+			rep.done.retainAll(v.done);
+			rep.succ.addAll(v.succ);
+			rep.loads.addAll(v.loads);
+			rep.stores.addAll(v.stores);
+			v.succ.clear();
+			v.done = Collections.emptySet();
+		}
+		rep.succ.removeIf(s -> find(s) == rep);
+		g.enqueue(rep);
+	}
+}
@@ -0,0 +1,498 @@
+package pav;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import pav.Analysis.Interval;
+import pav.Analysis.IntervalFact;
+import pav.Analysis.PointsToFact;
+
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.InvokeStmt;
+import soot.jimple.SpecialInvokeExpr;
+
+/* Incremental re-analysis for the unit-level solver (--incremental[=DIR]).
+ * After a method is solved within budget, its units and its final IN/OUT
+ * and branch-edge facts are saved to DIR/<Class>.<method>.snapshot.txt.
+ * The next run diffs the new body against the saved units, using the
+ * longest common subsequence of the unit texts:
+ *   - a unit is changed if it has no match, or if its predecessors or
+ *     successors differ from those of the unit it matches;
+ *   - every unit reachable from a changed unit is reset to bottom. Dropping
+ *     the old facts there keeps non-monotone edits sound (a removed
+ *     assignment or edge can shrink facts; a join from old facts cannot);
+ *   - every other unit keeps its saved facts, since nothing that reaches it
+ *     changed. Its allocation IDs are renamed to the new numbering.
+ * Both worklists then start from the reset units only. Points-to results
+ * equal a full solve. Interval results are sound, but may differ from a
+ * full solve where widening sees its operands in a different order.
+ * A snapshot is ignored when the signature, local types, heap abstraction
+ * or phase selection changed, or when the allocation IDs cannot be renamed
+ * one to one.
+ */
+final class Incremental {
+	private static final String HEADER = "#pav-incremental 1";
+	// Largest LCS table (old x new units after trimming the common prefix/suffix) before giving up
+	private static final long MAX_DIFF_CELLS = 1L << 22;
+
+	private Incremental() {}
+
+	// Incremental solving reuses the plain unit-level worklist; the other points-to engines start from bottom
+	static boolean enabled(soot.Body body) {
+		AnalysisConfig c = Analysis.config;
+		return c.incrementalDir != null && !c.flowInsensitivePts(body) && c.sccThreads == 0 && !c.ptsDelta;
+	}
+
+	/* Facts carried over from the snapshot, and the units to re-solve (body order) */
+	static final class Plan {
+		final Set<Unit> reset = new LinkedHashSet<>();
+		final Map<Unit, PointsToFact> ptsIn = new HashMap<>();
+		final Map<Unit, PointsToFact> ptsOut = new HashMap<>();
+		final Map<Unit, IntervalFact> iaIn = new HashMap<>();
+		final Map<Unit, IntervalFact> iaOut = new HashMap<>();
+		final Map<Unit, Map<Unit, IntervalFact>> edges = new HashMap<>();
+
+		void seedPts(Map<Unit, LatticeElement> in, Map<Unit, LatticeElement> out) {
+			in.putAll(ptsIn);
+			out.putAll(ptsOut);
+		}
+
+		// Interval facts carry the IN points-to fact of their unit, as the solver attaches it
+		void seedIntervals(Map<Unit, IntervalFact> in, Map<Unit, IntervalFact> out,
+		                   Map<Unit, Map<Unit, IntervalFact>> edgeFacts, Map<Unit, LatticeElement> pts) {
+			for (Map.Entry<Unit, IntervalFact> e : iaIn.entrySet()) in.put(e.getKey(), e.getValue().withPtsFact((PointsToFact) pts.get(e.getKey())));
+			for (Map.Entry<Unit, IntervalFact> e : iaOut.entrySet()) out.put(e.getKey(), e.getValue().withPtsFact((PointsToFact) pts.get(e.getKey())));
+			for (Map.Entry<Unit, Map<Unit, IntervalFact>> e : edges.entrySet()) {
+				PointsToFact p = (PointsToFact) pts.get(e.getKey());
+				Map<Unit, IntervalFact> m = new HashMap<>();
+				for (Map.Entry<Unit, IntervalFact> s : e.getValue().entrySet()) m.put(s.getKey(), s.getValue().withPtsFact(p));
+				edgeFacts.put(e.getKey(), m);
+			}
+		}
+	}
+
+	/* -------- Planning -------- */
+
+	// Null when there is no usable snapshot; the caller then solves from bottom
+	static Plan plan(MethodContext ctx, Map<String, SootClass> innerClasses) {
+		Path file = file(ctx);
+		if (!Files.exists(file)) return null;
+		Snapshot old;
+		try {
+			old = Snapshot.read(file, PointsToFact.bottom(ctx.localTypes, ctx.sites), IntervalFact.bottom(ctx.localTypes));
+		} catch (IOException | RuntimeException e) {
+			Base.SLF4J.LOGGER.warn("Ignoring unreadable snapshot " + file + ": " + e);
+			return null;
+		}
+		if (!old.fingerprint.equals(fingerprint(ctx))) return null;
+		// New locals are fine; a surviving local must keep its type
+		for (Map.Entry<String, String> e : old.localTypes.entrySet()) {
+			soot.Type t = ctx.localTypes.get(e.getKey());
+			if (t != null && !t.toString().equals(e.getValue())) return null;
+		}
+
+		List<String> keys = keys(ctx, innerClasses);
+		int[] match = match(old.keys, keys);
+		if (match == null) return null;
+		int[] back = new int[old.keys.size()];
+		Arrays.fill(back, -1);
+		for (int i = 0; i < match.length; i++) if (match[i] >= 0) back[match[i]] = i;
+
+		// Changed units, then everything they reach
+		Plan plan = new Plan();
+		Set<Unit> reset = new HashSet<>();
+		Deque<Unit> todo = new ArrayDeque<>();
+		for (int i = 0; i < match.length; i++) {
+			Unit u = ctx.units.get(i);
+			int j = match[i];
+			if (j < 0 || !old.preds.get(j).equals(mapped(ctx, ctx.cfg.getPredsOf(u), match))
+			          || !old.succs.get(j).equals(mapped(ctx, ctx.cfg.getSuccsOf(u), match))) {
+				if (reset.add(u)) todo.add(u);
+			}
+		}
+		while (!todo.isEmpty()) {
+			for (Unit s : ctx.cfg.getSuccsOf(todo.removeFirst())) if (reset.add(s)) todo.add(s);
+		}
+		for (Unit u : ctx.units) if (reset.contains(u)) plan.reset.add(u);
+
+		// Old allocation ID -> new one, from the matched allocating units; must be one to one
+		Map<String, String> rename = new HashMap<>();
+		Map<String, String> renamedFrom = new HashMap<>();
+		for (int i = 0; i < match.length; i++) {
+			String now = ctx.allocIds().get(ctx.units.get(i));
+			String was = (match[i] < 0) ? null : old.allocIds.get(match[i]);
+			if (now == null || was == null) continue;
+			String a = rename.putIfAbsent(was, now);
+			String b = renamedFrom.putIfAbsent(now, was);
+			if ((a != null && !a.equals(now)) || (b != null && !b.equals(was))) return null;
+		}
+
+		for (int i = 0; i < match.length; i++) {
+			Unit u = ctx.units.get(i);
+			if (reset.contains(u)) continue;
+			int j = match[i];
+			PointsToFact in = renamePts(old.ptsIn.get(j), rename);
+			PointsToFact out = renamePts(old.ptsOut.get(j), rename);
+			if (in == null || out == null) return null;
+			plan.ptsIn.put(u, in);
+			plan.ptsOut.put(u, out);
+			if (!old.hasIntervals) continue;
+			IntervalFact iin = renameIa(old.iaIn.get(j), rename);
+			IntervalFact iout = renameIa(old.iaOut.get(j), rename);
+			if (iin == null || iout == null) return null;
+			plan.iaIn.put(u, iin);
+			plan.iaOut.put(u, iout);
+			Map<Integer, IntervalFact> edges = old.edges.get(j);
+			if (edges == null) continue;
+			Map<Unit, IntervalFact> m = new HashMap<>();
+			for (Map.Entry<Integer, IntervalFact> e : edges.entrySet()) {
+				IntervalFact f = renameIa(e.getValue(), rename);
+				if (f == null) return null;
+				// Successors of an unchanged unit are matched: a different successor list would have reset it
+				m.put(ctx.units.get(back[e.getKey()]), f);
+			}
+			plan.edges.put(u, m);
+		}
+		Base.SLF4J.LOGGER.info("Incremental: " + ctx.name + ": re-solving " + plan.reset.size() + " of " + ctx.units.size() + " units");
+		return plan;
+	}
+
+	// Old indices of the given units, or -1 where a unit has no match
+	private static List<Integer> mapped(MethodContext ctx, List<Unit> us, int[] match) {
+		List<Integer> out = new ArrayList<>(us.size());
+		for (Unit u : us) out.add(match[ctx.indexOf(u)]);
+		return out;
+	}
+
+	/* New index -> index of the matched old unit, or -1: longest common
+	 * subsequence of the unit keys. The common prefix and suffix are
+	 * matched directly, so small edits only need a small table.
+	 */
+	static int[] match(List<String> a, List<String> b) {
+		int[] m = new int[b.size()];
+		Arrays.fill(m, -1);
+		int pre = 0;
+		while (pre < a.size() && pre < b.size() && a.get(pre).equals(b.get(pre))) {
+			m[pre] = pre;
+			pre++;
+		}
+		int ea = a.size(), eb = b.size();
+		while (ea > pre && eb > pre && a.get(ea - 1).equals(b.get(eb - 1))) {
+			ea--;
+			eb--;
+			m[eb] = ea;
+		}
+		int n = ea - pre, k = eb - pre;
+		if ((long) (n + 1) * (k + 1) > MAX_DIFF_CELLS) return null;
+		int[][] len = new int[n + 1][k + 1];
+		for (int i = n - 1; i >= 0; i--) {
+			for (int j = k - 1; j >= 0; j--) {
+				len[i][j] = a.get(pre + i).equals(b.get(pre + j)) ? len[i + 1][j + 1] + 1 : Math.max(len[i + 1][j], len[i][j + 1]);
+			}
+		}
+		for (int i = 0, j = 0; i < n && j < k; ) {
+			if (a.get(pre + i).equals(b.get(pre + j))) {
+				m[pre + j] = pre + i;
+				i++;
+				j++;
+			} else if (len[i + 1][j] >= len[i][j + 1]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return m;
+	}
+
+	/* Unit text, plus a digest of any constructor body whose field effects
+	 * the interval transfer inlines, so editing that constructor changes the key.
+	 */
+	private static List<String> keys(MethodContext ctx, Map<String, SootClass> innerClasses) {
+		List<String> keys = new ArrayList<>(ctx.units.size());
+		for (Unit u : ctx.units) {
+			String k = u.toString();
+			if (u instanceof InvokeStmt is && is.getInvokeExpr() instanceof SpecialInvokeExpr sie
+			    && sie.getMethod().getName().equals("<init>")) {
+				SootMethod init = Analysis.resolveInit(sie, innerClasses);
+				if (init != null && init.isConcrete()) {
+					k += " {init " + Integer.toHexString(init.retrieveActiveBody().getUnits().toString().hashCode()) + "}";
+				}
+			}
+			keys.add(k);
+		}
+		return keys;
+	}
+
+	// Everything besides the body that the saved facts depend on
+	private static String fingerprint(MethodContext ctx) {
+		StringBuilder sb = new StringBuilder(ctx.method.getSignature());
+		sb.append(" heap=").append(Analysis.config.heapModel).append('/').append(Analysis.config.heapCap);
+		sb.append(" ia=").append(Analysis.config.runs("IA"));
+		sb.append(" nullRefine=").append(Analysis.config.ptsNullRefine);
+		sb.append(" strong=").append(Analysis.config.ptsStrong);
+		sb.append(" iaHeap=").append(Analysis.config.iaHeap);
+		sb.append(" iaPrune=").append(Analysis.config.iaPrune);
+		return sb.toString();
+	}
+
+	/* -------- Allocation ID renaming -------- */
+
+	// Null if the fact mentions an object with no new ID
+	private static PointsToFact renamePts(PointsToFact f, Map<String, String> rename) {
+		Map<String, Set<String>> v = renameSets(f.getVarPts(), rename, false);
+		Map<String, Set<String>> h = renameSets(f.getHeapPts(), rename, true);
+		return (v == null || h == null) ? null : f.over(v, h);
+	}
+
+	private static Map<String, Set<String>> renameSets(Map<String, Set<String>> m, Map<String, String> rename, boolean heapKeys) {
+		Map<String, Set<String>> out = new HashMap<>();
+		for (Map.Entry<String, Set<String>> e : m.entrySet()) {
+			String k = heapKeys ? renameSlot(e.getKey(), rename) : e.getKey();
+			if (k == null) return null;
+			Set<String> objs = new HashSet<>();
+			for (String o : e.getValue()) {
+				String r = renameObject(o, rename);
+				if (r == null) return null;
+				objs.add(r);
+			}
+			out.put(k, objs);
+		}
+		return out;
+	}
+
+	private static IntervalFact renameIa(IntervalFact f, Map<String, String> rename) {
+		if (f.isUnreachable()) return f;
+		Map<String, Interval> h = new HashMap<>();
+		for (Map.Entry<String, Interval> e : f.getHeapIntervals().entrySet()) {
+			String k = renameSlot(e.getKey(), rename);
+			if (k == null) return null;
+			h.put(k, e.getValue());
+		}
+		return f.over(new HashMap<>(f.getIntervals()), h);
+	}
+
+	private static String renameObject(String obj, Map<String, String> rename) {
+		return obj.equals("null") ? obj : rename.get(obj);
+	}
+
+	// "newNN.field" -> "newMM.field"
+	private static String renameSlot(String slot, Map<String, String> rename) {
+		int dot = slot.indexOf('.');
+		String obj = renameObject((dot < 0) ? slot : slot.substring(0, dot), rename);
+		return (obj == null) ? null : (dot < 0) ? obj : obj + slot.substring(dot);
+	}
+
+	/* -------- Snapshot file --------
+	 * #pav-incremental 1
+	 * #fingerprint <signature, heap abstraction, phases>
+ * #locals <name>:<type> ...
+	 * U <alloc id or -> <preds> <succs> <unit key>     one per unit, body order
+	 * PI|PO <unit> <points-to fact>                   vars|heap, entries "slot=obj,obj" joined by ';'
+	 * II|IO <unit> <interval fact>                    vars|heap, entries "slot=lo,hi" ("slot=" for bottom)
+	 * E <if unit> <successor> <interval fact>         branch-edge facts
+	 * Fields are tab-separated; unit keys escape '\', tab and newline.
+	 */
+
+	private static Path file(MethodContext ctx) {
+		return Path.of(Analysis.config.incrementalDir).resolve(ctx.name + ".snapshot.txt");
+	}
+
+	// iaIn is null when interval analysis did not run
+	static void save(MethodContext ctx, Map<String, SootClass> innerClasses,
+	                 Map<Unit, LatticeElement> ptsIn, Map<Unit, LatticeElement> ptsOut,
+	                 Map<Unit, IntervalFact> iaIn, Map<Unit, IntervalFact> iaOut, Map<Unit, Map<Unit, IntervalFact>> edges) {
+		Path file = file(ctx);
+		List<String> keys = keys(ctx, innerClasses);
+		try {
+			Files.createDirectories(file.getParent());
+			try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				w.write(HEADER + "\n#fingerprint " + fingerprint(ctx) + "\n#locals");
+				for (Map.Entry<String, soot.Type> e : new TreeMap<>(ctx.localTypes).entrySet()) {
+					w.write(" " + e.getKey() + ":" + e.getValue());
+				}
+				w.write("\n");
+				for (int i = 0; i < ctx.units.size(); i++) {
+					Unit u = ctx.units.get(i);
+					String id = ctx.allocIds().get(u);
+					w.write("U\t" + ((id == null) ? "-" : id) + "\t" + indices(ctx, ctx.cfg.getPredsOf(u)) + "\t"
+					        + indices(ctx, ctx.cfg.getSuccsOf(u)) + "\t" + escape(keys.get(i)) + "\n");
+				}
+				for (int i = 0; i < ctx.units.size(); i++) {
+					Unit u = ctx.units.get(i);
+					w.write("PI\t" + i + "\t" + encode((PointsToFact) ptsIn.get(u)) + "\n");
+					w.write("PO\t" + i + "\t" + encode((PointsToFact) ptsOut.get(u)) + "\n");
+					if (iaIn == null) continue;
+					w.write("II\t" + i + "\t" + encode(iaIn.get(u)) + "\n");
+					w.write("IO\t" + i + "\t" + encode(iaOut.get(u)) + "\n");
+					Map<Unit, IntervalFact> es = edges.get(u);
+					if (es == null) continue;
+					for (Map.Entry<Unit, IntervalFact> e : es.entrySet()) {
+						w.write("E\t" + i + "\t" + ctx.indexOf(e.getKey()) + "\t" + encode(e.getValue()) + "\n");
+					}
+				}
+			}
+		} catch (IOException e) {
+			Base.SLF4J.LOGGER.warn("Could not save snapshot " + file + ": " + e);
+		}
+	}
+
+	private static String indices(MethodContext ctx, List<Unit> us) {
+		StringBuilder sb = new StringBuilder();
+		for (Unit u : us) {
+			if (sb.length() > 0) sb.append(',');
+			sb.append(ctx.indexOf(u));
+		}
+		return sb.toString();
+	}
+
+	private static List<Integer> parseIndices(String s) {
+		List<Integer> out = new ArrayList<>();
+		for (String p : s.split(",")) if (!p.isEmpty()) out.add(Integer.parseInt(p));
+		return out;
+	}
+
+	private static String escape(String s) {
+		return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+	}
+
+	private static String encode(PointsToFact f) {
+		return encodeSets(f.getVarPts()) + "|" + encodeSets(f.getHeapPts());
+	}
+
+	private static String encodeSets(Map<String, Set<String>> m) {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Set<String>> e : m.entrySet()) {
+			if (sb.length() > 0) sb.append(';');
+			sb.append(e.getKey()).append('=').append(String.join(",", e.getValue()));
+		}
+		return sb.toString();
+	}
+
+	private static String encode(IntervalFact f) {
+		if (f.isUnreachable()) return "!";
+		return encodeIntervals(f.getIntervals()) + "|" + encodeIntervals(f.getHeapIntervals());
+	}
+
+	private static String encodeIntervals(Map<String, Interval> m) {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Interval> e : m.entrySet()) {
+			if (sb.length() > 0) sb.append(';');
+			sb.append(e.getKey()).append('=');
+			Interval iv = e.getValue();
+			if (iv != null) sb.append(iv.lo).append(',').append(iv.hi);
+		}
+		return sb.toString();
+	}
+
+	/* A parsed snapshot; facts are indexed by old unit number */
+	private static final class Snapshot {
+		String fingerprint;
+		final Map<String, String> localTypes = new HashMap<>();
+		final List<String> keys = new ArrayList<>();
+		final List<String> allocIds = new ArrayList<>();
+		final List<List<Integer>> preds = new ArrayList<>();
+		final List<List<Integer>> succs = new ArrayList<>();
+		final Map<Integer, PointsToFact> ptsIn = new HashMap<>();
+		final Map<Integer, PointsToFact> ptsOut = new HashMap<>();
+		final Map<Integer, IntervalFact> iaIn = new HashMap<>();
+		final Map<Integer, IntervalFact> iaOut = new HashMap<>();
+		final Map<Integer, Map<Integer, IntervalFact>> edges = new HashMap<>();
+		boolean hasIntervals;
+
+		static Snapshot read(Path file, PointsToFact ptsBottom, IntervalFact iaBottom) throws IOException {
+			Snapshot s = new Snapshot();
+			try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				if (!HEADER.equals(r.readLine())) throw new IOException("not a snapshot");
+				String fp = r.readLine();
+				if (fp == null || !fp.startsWith("#fingerprint ")) throw new IOException("missing fingerprint");
+				s.fingerprint = fp.substring("#fingerprint ".length());
+				String locals = r.readLine();
+				if (locals == null || !locals.startsWith("#locals")) throw new IOException("missing locals");
+				for (String l : locals.substring("#locals".length()).trim().split(" ")) {
+					int colon = l.lastIndexOf(':');
+					if (colon > 0) s.localTypes.put(l.substring(0, colon), l.substring(colon + 1));
+				}
+				for (String line = r.readLine(); line != null; line = r.readLine()) {
+					String[] f = line.split("\t", -1);
+					switch (f[0]) {
+						case "U" -> {
+							s.allocIds.add(f[1].equals("-") ? null : f[1]);
+							s.preds.add(parseIndices(f[2]));
+							s.succs.add(parseIndices(f[3]));
+							s.keys.add(unescape(f[4]));
+						}
+						case "PI" -> s.ptsIn.put(Integer.parseInt(f[1]), decodePts(f[2], ptsBottom));
+						case "PO" -> s.ptsOut.put(Integer.parseInt(f[1]), decodePts(f[2], ptsBottom));
+						case "II" -> s.iaIn.put(Integer.parseInt(f[1]), decodeIa(f[2], iaBottom));
+						case "IO" -> s.iaOut.put(Integer.parseInt(f[1]), decodeIa(f[2], iaBottom));
+						case "E" -> s.edges.computeIfAbsent(Integer.parseInt(f[1]), k -> new HashMap<>())
+						                   .put(Integer.parseInt(f[2]), decodeIa(f[3], iaBottom));
+						default -> throw new IOException("bad line: " + line);
+					}
+				}
+			}
+			int n = s.keys.size();
+			if (s.ptsIn.size() != n || s.ptsOut.size() != n) throw new IOException("incomplete points-to facts");
+			s.hasIntervals = !s.iaIn.isEmpty();
+			if (s.hasIntervals && (s.iaIn.size() != n || s.iaOut.size() != n)) throw new IOException("incomplete interval facts");
+			return s;
+		}
+
+		private static String unescape(String s) {
+			StringBuilder sb = new StringBuilder(s.length());
+			for (int i = 0; i < s.length(); i++) {
+				char c = s.charAt(i);
+				if (c != '\\' || i + 1 == s.length()) {
+					sb.append(c);
+					continue;
+				}
+				char e = s.charAt(++i);
+				sb.append(e == 't' ? '\t' : e == 'n' ? '\n' : e);
+			}
+			return sb.toString();
+		}
+
+		private static PointsToFact decodePts(String s, PointsToFact bottom) {
+			String[] parts = s.split("\\|", -1);
+			return bottom.over(decodeSets(parts[0]), decodeSets(parts[1]));
+		}
+
+		private static Map<String, Set<String>> decodeSets(String s) {
+			Map<String, Set<String>> m = new HashMap<>();
+			for (String entry : s.split(";")) {
+				if (entry.isEmpty()) continue;
+				int eq = entry.indexOf('=');
+				Set<String> objs = new HashSet<>();
+				for (String o : entry.substring(eq + 1).split(",")) if (!o.isEmpty()) objs.add(o);
+				m.put(entry.substring(0, eq), objs);
+			}
+			return m;
+		}
+
+		private static IntervalFact decodeIa(String s, IntervalFact bottom) {
+			if (s.equals("!")) return bottom.unreachable();
+			String[] parts = s.split("\\|", -1);
+			return bottom.over(decodeIntervals(parts[0]), decodeIntervals(parts[1]));
+		}
+
+		private static Map<String, Interval> decodeIntervals(String s) {
+			Map<String, Interval> m = new HashMap<>();
+			for (String entry : s.split(";")) {
+				if (entry.isEmpty()) continue;
+				int eq = entry.indexOf('=');
+				String v = entry.substring(eq + 1);
+				int comma = v.indexOf(',');
+				m.put(entry.substring(0, eq), v.isEmpty() ? null
+				      : new Interval(Long.parseLong(v.substring(0, comma)), Long.parseLong(v.substring(comma + 1))));
+			}
+			return m;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.MethodResult;
+import pav.Analysis.PointsToFact;
+
+import soot.Local;
+import soot.SootClass;
+import soot.Unit;
+import soot.toolkits.scalar.LiveLocals;
+import soot.toolkits.scalar.SimpleLiveLocals;
+
+/* Allocation-in-loop client (--analyses=...,ALLOC).
+ * Lists every new/newarray site inside a natural loop (MethodContext.loops)
+ * with what becomes of its object once the innermost loop's iteration ends:
+ *   PerIteration  unreachable by then: a hoisting or reuse candidate
+ *   LoopCarried   still held by a local that is live at the loop header
+ *                 (next iteration) or at a loop exit (after the loop)
+ *   Heap          stored in a heap slot, or escaping the method (EscapeAnalysis)
+ * Lines are ranked by loop depth, deepest first:
+ *   Test.m: depth 2: new07: LoopCarried (r3)
+ */
+final class LoopAllocations {
+
+	private LoopAllocations() {}
+
+	private record Line(int depth, String site, String text) {}
+
+	static List<String> report(MethodContext ctx, MethodResult res, Map<String, SootClass> innerClasses,
+	                           Budget.Meter meter) {
+		List<String> sites = new ArrayList<>();
+		for (Map.Entry<String, Unit> e : ctx.siteUnits.entrySet()) {
+			if (ctx.loopDepth(e.getValue()) > 0 && EscapeAnalysis.isAllocation(e.getValue())) sites.add(e.getKey());
+		}
+		if (sites.isEmpty()) return List.of();
+
+		Map<String, EscapeAnalysis.Escape> esc = EscapeAnalysis.classify(ctx, res, innerClasses, meter);
+		Set<String> inHeap = new HashSet<>();
+		for (Unit u : ctx.units) {
+			for (Set<String> objs : res.ptsOut(u).getHeapPts().values()) inHeap.addAll(objs);
+		}
+		LiveLocals live = new SimpleLiveLocals(ctx.cfg);
+
+		List<Line> lines = new ArrayList<>();
+		for (String id : sites) {
+			meter.pop();
+			Unit site = ctx.siteUnits.get(id);
+			int depth = ctx.loopDepth(site);
+			String obj = ctx.allocIds().get(site);
+			String fate;
+			if (inHeap.contains(obj) || esc.containsKey(obj)) {
+				fate = "Heap";
+			} else {
+				String holder = carriedBy(ctx, res, live, innermost(ctx, site), obj);
+				fate = (holder == null) ? "PerIteration" : "LoopCarried (" + holder + ")";
+			}
+			lines.add(new Line(depth, id, ctx.name + ": depth " + depth + ": " + id + ": " + fate));
+		}
+		lines.sort(Comparator.comparingInt(Line::depth).reversed().thenComparing(Line::site));
+
+		List<String> out = new ArrayList<>(lines.size());
+		for (Line l : lines) out.add(l.text());
+		return out;
+	}
+
+	// Body of the smallest natural loop containing u
+	private static Set<Unit> innermost(MethodContext ctx, Unit u) {
+		Set<Unit> best = null;
+		for (Set<Unit> body : ctx.loops.values()) {
+			if (body.contains(u) && (best == null || body.size() < best.size())) best = body;
+		}
+		return best;
+	}
+
+	// A local holding obj across a back edge or a loop exit that is live on the other side; null if none
+	private static String carriedBy(MethodContext ctx, MethodResult res, LiveLocals live, Set<Unit> loop, String obj) {
+		Unit header = loop.iterator().next();
+		SortedSet<String> holders = new TreeSet<>();
+		for (Unit u : loop) {
+			for (Unit s : ctx.cfg.getSuccsOf(u)) {
+				if (s != header && loop.contains(s)) continue; // neither a back edge nor an exit
+				PointsToFact out = res.ptsOut(u);
+				for (Local l : live.getLiveLocalsBefore(s)) {
+					if (out.ptsOfLocal(l.getName()).contains(obj)) holders.add(l.getName());
+				}
+			}
+		}
+		return holders.isEmpty() ? null : holders.first();
+	}
+}
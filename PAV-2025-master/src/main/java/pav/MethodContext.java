@@ -0,0 +1,219 @@
+package pav;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import pav.Analysis.IntervalFact;
+import pav.Analysis.PointsToFact;
+
+import soot.Body;
+import soot.Local;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.GotoStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.IfStmt;
+import soot.jimple.ParameterRef;
+import soot.jimple.ReturnStmt;
+import soot.jimple.ReturnVoidStmt;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.UnitGraph;
+
+/* Everything derived from one method body that more than one phase needs:
+ * dense unit numbering, the BriefUnitGraph, program-point labels,
+ * allocation sites, local types, int parameter locals, loop headers, natural
+ * loops and the Jimple listing. Built once per method and run (MethodContext.of),
+ * read-only afterwards, so printing, every solver and parallel workers
+ * can share one instance. Building needs Soot; reading does not.
+ */
+final class MethodContext {
+	final SootMethod method;
+	final Body body;
+	// "Class.method", the prefix of every output line
+	final String name;
+	// Units in body order; index i is the unit's dense number
+	final List<Unit> units;
+	private final Map<Unit, Integer> index;
+	final UnitGraph cfg;
+
+	// Program-point labels, see labels()
+	final Map<Unit, String> inLabel;
+	final Map<Unit, String> branchFalseLabel;
+	final Map<Unit, String> branchTrueLabel;
+
+	// Allocation IDs under the heap abstraction of the current run
+	final PointsToFact.AllocSites sites;
+	// Site ID ("newNN", before any merging) -> allocating unit
+	final Map<String, Unit> siteUnits;
+	// local name -> type, shared by both fact domains' bottom()
+	final Map<String, Type> localTypes;
+	final Set<String> intParamLocals;
+	final Set<Unit> loopHeaders;
+	// Loop header -> its natural loop (header included), in header order
+	final Map<Unit, Set<Unit>> loops;
+	private final Map<Unit, Integer> loopDepth;
+	// Numbered Jimple listing shown by printInfo
+	final String listing;
+
+	private static final Map<SootMethod, MethodContext> cache = new ConcurrentHashMap<>();
+
+	// Context of a method with a body; null for phantom and abstract methods
+	static MethodContext of(SootMethod m) {
+		if (m.isPhantom() || !m.isConcrete()) return null;
+		return cache.computeIfAbsent(m, MethodContext::new);
+	}
+
+	// Contexts depend on the run's options (heap abstraction); main() starts each run afresh
+	static void clearCache() { cache.clear(); }
+
+	private MethodContext(SootMethod m) {
+		this.method = m;
+		this.body = m.retrieveActiveBody();
+		this.name = m.getDeclaringClass().getShortName() + "." + m.getName();
+
+		List<Unit> us = new ArrayList<>(body.getUnits());
+		Map<Unit, Integer> idx = new HashMap<>();
+		for (int i = 0; i < us.size(); i++) idx.put(us.get(i), i);
+		this.units = Collections.unmodifiableList(us);
+		this.index = Collections.unmodifiableMap(idx);
+		this.cfg = new BriefUnitGraph(body);
+
+		Map<Unit, String> in = new LinkedHashMap<>();
+		Map<Unit, String> bf = new LinkedHashMap<>();
+		Map<Unit, String> bt = new LinkedHashMap<>();
+		labels(us, in, bf, bt);
+		this.inLabel = Collections.unmodifiableMap(in);
+		this.branchFalseLabel = Collections.unmodifiableMap(bf);
+		this.branchTrueLabel = Collections.unmodifiableMap(bt);
+
+		// Allocation IDs per allocating unit, then merged by the configured heap abstraction
+		Map<Unit, String> siteIds = Analysis.precomputeAllocIds(body);
+		this.sites = PointsToFact.AllocSites.build(body, cfg, siteIds, Analysis.config.heapModel, Analysis.config.heapCap);
+		Map<String, Unit> su = new HashMap<>();
+		for (Map.Entry<Unit, String> e : siteIds.entrySet()) su.put(e.getValue(), e.getKey());
+		this.siteUnits = Collections.unmodifiableMap(su);
+
+		Map<String, Type> lt = new HashMap<>();
+		for (Local l : body.getLocals()) lt.put(l.getName(), l.getType());
+		this.localTypes = Collections.unmodifiableMap(lt);
+		this.intParamLocals = Collections.unmodifiableSet(intParamLocals(us));
+		this.loopHeaders = Collections.unmodifiableSet(loopHeaders());
+		this.loops = Collections.unmodifiableMap(naturalLoops());
+		Map<Unit, Integer> depth = new HashMap<>();
+		for (Set<Unit> body : loops.values()) for (Unit u : body) depth.merge(u, 1, Integer::sum);
+		this.loopDepth = Collections.unmodifiableMap(depth);
+		this.listing = Base.formatInfo(m);
+	}
+
+	int indexOf(Unit u) { return index.get(u); }
+
+	Map<Unit, String> allocIds() { return sites.ids; }
+
+	// Number of natural loops containing u; 0 outside every loop
+	int loopDepth(Unit u) { return loopDepth.getOrDefault(u, 0); }
+
+	// Program point naming u in client reports: its label, an IfStmt's branch label, or its unit number
+	String pointOf(Unit u) {
+		String l = inLabel.get(u);
+		if (l == null) l = branchFalseLabel.get(u);
+		if (l == null) l = branchTrueLabel.get(u);
+		return (l != null) ? l : String.format("unit %02d", indexOf(u));
+	}
+
+	/* Program-point labels: after each semantic statement
+	 * For while loops (inverted condition), output order should be:
+	 * 1. FALSE branch (loop body entry) - at the condition
+	 * 2. Loop body statements
+	 * 3. TRUE branch (loop exit) - at the jump target
+	 * Skip goto and return statements
+	 */
+	private static void labels(List<Unit> unitList, Map<Unit, String> inLabel,
+	                           Map<Unit, String> branchFalseLabel, Map<Unit, String> branchTrueLabel) {
+		// Track which units should get a TRUE branch label from a previous if
+		Map<Unit, IfStmt> trueBranchSource = new LinkedHashMap<>();
+
+		// First pass: identify if statements and their targets
+		for (Unit u : unitList) {
+			if (u instanceof IfStmt ifst) {
+				Unit target = ifst.getTarget();
+				trueBranchSource.put(target, ifst);
+			}
+		}
+
+		// Second pass: assign labels
+		int lbl = 1;
+		for (int i = 0; i < unitList.size(); i++) {
+			Unit u = unitList.get(i);
+			if (u instanceof GotoStmt || u instanceof ReturnStmt || u instanceof ReturnVoidStmt) {
+				continue;
+			}
+
+			// If this unit is a TRUE branch target, output that label first
+			if (trueBranchSource.containsKey(u)) {
+				IfStmt sourceIf = trueBranchSource.get(u);
+				branchTrueLabel.put(sourceIf, Base.getProgramPointName(lbl++));
+			}
+
+			if (u instanceof IfStmt) {
+				// FALSE branch (fall-through) gets a label, unless it leads directly to return
+				Unit nextUnit = (i + 1 < unitList.size()) ? unitList.get(i + 1) : null;
+				if (nextUnit != null && !(nextUnit instanceof ReturnStmt) && !(nextUnit instanceof ReturnVoidStmt)) {
+					branchFalseLabel.put(u, Base.getProgramPointName(lbl++));
+				}
+			} else {
+				inLabel.put(u, Base.getProgramPointName(lbl++));
+			}
+		}
+	}
+
+	// Loop headers: nodes with a back edge (a predecessor that comes later in source order)
+	private Set<Unit> loopHeaders() {
+		Set<Unit> headers = new HashSet<>();
+		for (Unit u : units) {
+			for (Unit pred : cfg.getPredsOf(u)) {
+				if (indexOf(pred) > indexOf(u)) {
+					headers.add(u);
+					break;
+				}
+			}
+		}
+		return headers;
+	}
+
+	// Per header: the units that reach one of its back edges without passing through it
+	private Map<Unit, Set<Unit>> naturalLoops() {
+		Map<Unit, Set<Unit>> out = new LinkedHashMap<>();
+		for (Unit h : units) {
+			if (!loopHeaders.contains(h)) continue;
+			Set<Unit> body = new LinkedHashSet<>();
+			body.add(h);
+			Deque<Unit> todo = new ArrayDeque<>();
+			for (Unit pred : cfg.getPredsOf(h)) if (indexOf(pred) > indexOf(h)) todo.add(pred);
+			while (!todo.isEmpty()) {
+				Unit u = todo.removeFirst();
+				if (body.add(u)) todo.addAll(cfg.getPredsOf(u));
+			}
+			out.put(h, Collections.unmodifiableSet(body));
+		}
+		return out;
+	}
+
+	// Int locals bound to parameters via IdentityStmt: x := @parameter0: T
+	private static Set<String> intParamLocals(List<Unit> units) {
+		Set<String> paramLocals = new HashSet<>();
+		for (Unit u : units) {
+			if (u instanceof IdentityStmt is) {
+				Value rhs = is.getRightOp();
+				if (rhs instanceof ParameterRef) {
+					Value lhs = is.getLeftOp();
+					if (lhs instanceof Local pl && IntervalFact.isInt(pl.getType())) {
+						paramLocals.add(pl.getName());
+					}
+				}
+			}
+		}
+		return paramLocals;
+	}
+}
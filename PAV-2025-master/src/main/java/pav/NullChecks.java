@@ -0,0 +1,209 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.MethodResult;
+import pav.Analysis.PointsToFact;
+
+import soot.Local;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.IdentityStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.LengthExpr;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.NullConstant;
+import soot.jimple.Stmt;
+import soot.jimple.ThisRef;
+import soot.toolkits.graph.MHGDominatorsFinder;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.SimpleLocalDefs;
+
+/* Null-dereference client over the points-to facts (--analyses=...,NPE).
+ * Visits the base of every InstanceFieldRef, ArrayRef, LengthExpr and instance
+ * InvokeExpr, and classifies the dereference:
+ *   NonNull    the implicit null check can be dropped
+ *   MaybeNull  everything else
+ * A base is NonNull if it is `this` or a copy or cast of it (PTS gives `this`
+ * no object), or if pts(base) before the statement is non-empty and holds
+ * neither "null" nor a call result (PTS models those as fresh objects, but a
+ * callee may return null), and every definition of it reaching the statement
+ * yields an object PTS fully accounts for: `this`, a `new`, a copy or cast of
+ * such a local, or a field load from allocated objects whose field a dominating
+ * strong write last set, on every path to the load, to a local that is itself
+ * NonNull there; a call between that write and the load may change the field,
+ * so it counts as a write. PTS does not model the default null of unwritten
+ * fields, parameters or array elements, so those stay MaybeNull.
+ * One line per dereference, sorted like AASC:
+ *   Test.m: in07: NonNull (r1.f)
+ */
+final class NullChecks {
+
+	private NullChecks() {}
+
+	static List<String> report(MethodContext ctx, MethodResult res, Budget.Meter meter) {
+		Set<String> callResults = new HashSet<>();
+		for (Map.Entry<Unit, String> e : ctx.allocIds().entrySet()) {
+			if (!EscapeAnalysis.isAllocation(e.getKey())) callResults.add(e.getValue());
+		}
+		Checker c = new Checker(ctx, res, callResults);
+
+		List<String> lines = new ArrayList<>();
+		for (Unit u : ctx.units) {
+			String label = ctx.inLabel.get(u);
+			if (label == null) continue;
+			for (ValueBox vb : u.getUseAndDefBoxes()) {
+				Value v = vb.getValue();
+				Value base;
+				String what;
+				if (v instanceof InstanceFieldRef ifr) {
+					base = ifr.getBase();
+					what = base + "." + ifr.getField().getName();
+				} else if (v instanceof ArrayRef ar) {
+					base = ar.getBase();
+					what = base + "[]";
+				} else if (v instanceof LengthExpr le) {
+					base = le.getOp();
+					what = base + ".length";
+				} else if (v instanceof InstanceInvokeExpr iie) {
+					base = iie.getBase();
+					what = base + "." + iie.getMethod().getName() + "()";
+				} else {
+					continue;
+				}
+				meter.pop();
+				boolean nonNull = base instanceof Local l && c.nonNull(l, u);
+				lines.add(ctx.name + ": " + label + ": " + (nonNull ? "NonNull" : "MaybeNull") + " (" + what + ")");
+			}
+		}
+		Collections.sort(lines);
+		return lines;
+	}
+
+	private static final class Checker {
+		private final MethodContext ctx;
+		private final MethodResult res;
+		private final Set<String> callResults;
+		private final LocalDefs defs;
+		private MHGDominatorsFinder<Unit> dom;
+
+		Checker(MethodContext ctx, MethodResult res, Set<String> callResults) {
+			this.ctx = ctx;
+			this.res = res;
+			this.callResults = callResults;
+			this.defs = new SimpleLocalDefs(ctx.cfg);
+		}
+
+		boolean nonNull(Local l, Unit u) {
+			return nonNull(l, u, new HashSet<>());
+		}
+
+		private boolean nonNull(Local l, Unit u, Set<Unit> seen) {
+			Set<String> objs = res.ptsIn(u).ptsOfLocal(l.getName());
+			if (objs.isEmpty()) return isThis(l, u, new HashSet<>());
+			if (objs.contains("null")) return false;
+			for (String o : objs) if (callResults.contains(o)) return false;
+			return defined(l, u, seen);
+		}
+
+		// l is `this` or a copy or cast of it on every path to u
+		private boolean isThis(Local l, Unit u, Set<Unit> seen) {
+			List<Unit> ds = defs.getDefsOfAt(l, u);
+			if (ds.isEmpty()) return false;
+			for (Unit d : ds) {
+				if (!seen.add(d)) continue;
+				Value R = (d instanceof IdentityStmt is) ? is.getRightOp() : ((AssignStmt) d).getRightOp();
+				if (R instanceof CastExpr ce) R = ce.getOp();
+				if (R instanceof ThisRef) continue;
+				if (!(R instanceof Local y) || !isThis(y, d, seen)) return false;
+			}
+			return true;
+		}
+
+		/* Every definition of l reaching u yields something the pts check above sees
+		 * in full; null constants and call results count, since they show up in pts. */
+		private boolean defined(Local l, Unit u, Set<Unit> seen) {
+			for (Unit d : defs.getDefsOfAt(l, u)) {
+				if (!seen.add(d)) continue;
+				if (d instanceof IdentityStmt is) {
+					if (!(is.getRightOp() instanceof ThisRef)) return false;
+					continue;
+				}
+				Value R = ((AssignStmt) d).getRightOp();
+				if (R instanceof CastExpr ce) R = ce.getOp();
+				if (R instanceof NewExpr || R instanceof NewArrayExpr || R instanceof NewMultiArrayExpr
+					|| R instanceof NullConstant || R instanceof InvokeExpr) continue;
+				if (R instanceof Local y) {
+					if (!defined(y, d, seen)) return false;
+				} else if (R instanceof InstanceFieldRef ifr && ifr.getBase() instanceof Local y) {
+					if (!written(y, ifr.getField().getName(), d, seen)) return false;
+				} else {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// Every object y may hold at load is one allocation whose field f was last set to a non-null value
+		private boolean written(Local y, String f, Unit load, Set<Unit> seen) {
+			PointsToFact in = res.ptsIn(load);
+			Set<String> objs = in.ptsOfLocal(y.getName());
+			if (objs.isEmpty()) return false;
+			for (String o : objs) {
+				if ("null".equals(o)) continue; // the load itself throws
+				if (callResults.contains(o) || in.isSummary(o) || !lastWriteBefore(o, f, load, seen)) return false;
+			}
+			return true;
+		}
+
+		/* A dominating strong write w: z.f = r with pts(z) = {o} that no other write to
+		 * a field named f or call follows on any path from w to load, and whose r is non-null. */
+		private boolean lastWriteBefore(String o, String f, Unit load, Set<Unit> seen) {
+			if (dom == null) dom = new MHGDominatorsFinder<>(ctx.cfg);
+			for (Unit w : dom.getDominators(load)) {
+				if (w == load || !writesField(w, f)) continue;
+				InstanceFieldRef ifr = (InstanceFieldRef) ((AssignStmt) w).getLeftOp();
+				if (!(ifr.getBase() instanceof Local z) || !res.ptsIn(w).ptsOfLocal(z.getName()).equals(Set.of(o))) continue;
+				if (!lastWrite(w, f, load)) continue;
+				return ((AssignStmt) w).getRightOp() instanceof Local r && nonNull(r, w, seen);
+			}
+			return false;
+		}
+
+		/* No unit on a path from w to load, other than w, writes a field named f or
+		 * makes a call (the callee may write o.f). Paths may pass through load and
+		 * come back to it around a loop, so a write after the load in the loop body
+		 * also kills w. */
+		private boolean lastWrite(Unit w, String f, Unit load) {
+			Set<Unit> after = new HashSet<>();
+			Deque<Unit> work = new ArrayDeque<>(ctx.cfg.getSuccsOf(w));
+			while (!work.isEmpty()) {
+				Unit u = work.pop();
+				if (u == w || !after.add(u)) continue;
+				work.addAll(ctx.cfg.getSuccsOf(u));
+			}
+			Set<Unit> before = new HashSet<>();
+			work.addAll(ctx.cfg.getPredsOf(load));
+			while (!work.isEmpty()) {
+				Unit u = work.pop();
+				if (u == w || !before.add(u)) continue;
+				if (after.contains(u) && (writesField(u, f) || ((Stmt) u).containsInvokeExpr())) return false;
+				work.addAll(ctx.cfg.getPredsOf(u));
+			}
+			return true;
+		}
+
+		private static boolean writesField(Unit u, String f) {
+			return u instanceof AssignStmt as && as.getLeftOp() instanceof InstanceFieldRef ifr
+				&& ifr.getField().getName().equals(f);
+		}
+	}
+}
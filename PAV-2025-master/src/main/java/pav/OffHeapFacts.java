@@ -0,0 +1,256 @@
+package pav;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import pav.Analysis.Interval;
+import pav.Analysis.IntervalFact;
+import pav.Analysis.PointsToFact;
+
+import soot.Body;
+import soot.Unit;
+
+/* Off-heap IN/OUT tables for the unit-level solver (--off-heap).
+ * Each table is a Map<Unit, fact> whose facts live encoded in a direct
+ * ByteBuffer and are decoded on every get, so the Java heap holds only a
+ * slot index per unit, the interned names, and a small cache of recently
+ * decoded facts. A put appends a fresh record; the arena is compacted
+ * when it fills up.
+ * Encoding (all ints are ids into the shared string table):
+ *   PointsToFact: [nVars {key n obj*}*] [nHeap {key n obj*}*]
+ *   IntervalFact: [unreachable] [nVars {key present lo hi}*] [nHeap {key present lo hi}*]
+ * An unreachable interval fact (--ia-prune) is the flag alone. Reachable
+ * interval facts come back without a points-to fact; the IA tables
+ * re-attach the IN points-to fact of the same unit.
+ */
+final class OffHeapFacts {
+	private static final int CACHED = 64;
+	private static final int MIN_ARENA = 1 << 16;
+
+	private final Map<Unit, Integer> slot = new LinkedHashMap<>();
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final List<String> names = new ArrayList<>();
+	private final PointsToFact ptsBottom;
+	private final IntervalFact iaBottom;
+	// Reused encode buffer; grows to the largest single fact
+	private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+	OffHeapFacts(Body body, PointsToFact ptsBottom, IntervalFact iaBottom) {
+		for (Unit u : body.getUnits()) slot.put(u, slot.size());
+		this.ptsBottom = ptsBottom;
+		this.iaBottom = iaBottom;
+	}
+
+	Map<Unit, LatticeElement> ptsTable() {
+		return new Table<LatticeElement>() {
+			@Override void encode(LatticeElement f) {
+				PointsToFact p = (PointsToFact) f;
+				writeSets(p.getVarPts());
+				writeSets(p.getHeapPts());
+			}
+
+			@Override LatticeElement decode(ByteBuffer in, Unit u) {
+				Map<String, Set<String>> v = readSets(in);
+				Map<String, Set<String>> h = readSets(in);
+				return ptsBottom.over(v, h);
+			}
+		};
+	}
+
+	// ptsIn supplies the points-to fact attached to each decoded interval fact
+	Map<Unit, IntervalFact> iaTable(Map<Unit, LatticeElement> ptsIn) {
+		return new Table<IntervalFact>() {
+			@Override void encode(IntervalFact f) {
+				ensure(4);
+				scratch.putInt(f.isUnreachable() ? 1 : 0);
+				if (f.isUnreachable()) return;
+				writeIntervals(f.getIntervals());
+				writeIntervals(f.getHeapIntervals());
+			}
+
+			@Override IntervalFact decode(ByteBuffer in, Unit u) {
+				if (in.getInt() != 0) return iaBottom.unreachable();
+				Map<String, Interval> i = readIntervals(in);
+				Map<String, Interval> h = readIntervals(in);
+				IntervalFact f = iaBottom.over(i, h);
+				f.setPtsFact((PointsToFact) ptsIn.get(u));
+				return f;
+			}
+		};
+	}
+
+	/* -------- String interning -------- */
+
+	private int id(String s) {
+		Integer i = ids.get(s);
+		if (i == null) {
+			i = names.size();
+			ids.put(s, i);
+			names.add(s);
+		}
+		return i;
+	}
+
+	/* -------- Codec -------- */
+
+	private void ensure(int bytes) {
+		if (scratch.remaining() >= bytes) return;
+		ByteBuffer bigger = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+		scratch.flip();
+		bigger.put(scratch);
+		scratch = bigger;
+	}
+
+	private void writeSets(Map<String, Set<String>> m) {
+		ensure(4);
+		scratch.putInt(m.size());
+		for (Map.Entry<String, Set<String>> e : m.entrySet()) {
+			ensure(8 + 4 * e.getValue().size());
+			scratch.putInt(id(e.getKey()));
+			scratch.putInt(e.getValue().size());
+			for (String o : e.getValue()) scratch.putInt(id(o));
+		}
+	}
+
+	private Map<String, Set<String>> readSets(ByteBuffer in) {
+		int n = in.getInt();
+		Map<String, Set<String>> m = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			String k = names.get(in.getInt());
+			int c = in.getInt();
+			Set<String> s = new HashSet<>();
+			for (int j = 0; j < c; j++) s.add(names.get(in.getInt()));
+			m.put(k, s);
+		}
+		return m;
+	}
+
+	private void writeIntervals(Map<String, Interval> m) {
+		ensure(4 + 21 * m.size());
+		scratch.putInt(m.size());
+		for (Map.Entry<String, Interval> e : m.entrySet()) {
+			scratch.putInt(id(e.getKey()));
+			Interval iv = e.getValue();
+			// bottom intervals are stored as null values
+			scratch.put((byte) ((iv == null) ? 0 : 1));
+			scratch.putLong((iv == null) ? 0 : iv.lo);
+			scratch.putLong((iv == null) ? 0 : iv.hi);
+		}
+	}
+
+	private Map<String, Interval> readIntervals(ByteBuffer in) {
+		int n = in.getInt();
+		Map<String, Interval> m = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			String k = names.get(in.getInt());
+			boolean present = in.get() != 0;
+			long lo = in.getLong();
+			long hi = in.getLong();
+			m.put(k, present ? new Interval(lo, hi) : null);
+		}
+		return m;
+	}
+
+	/* ---------------------------------------------------------
+	 * One IN or OUT table: unit slot -> (offset, length) in the arena.
+	 * put() returns null rather than decoding the replaced fact.
+	 * --------------------------------------------------------- */
+	private abstract class Table<F> extends AbstractMap<Unit, F> {
+		private ByteBuffer arena = ByteBuffer.allocateDirect(Math.max(MIN_ARENA, slot.size() * 64));
+		private final int[] offset = new int[slot.size()];
+		private final int[] length = new int[slot.size()];
+		private int count;
+		private final Map<Unit, F> recent = new LinkedHashMap<>(CACHED, 0.75f, true) {
+			@Override protected boolean removeEldestEntry(Map.Entry<Unit, F> eldest) { return size() > CACHED; }
+		};
+
+		Table() {
+			Arrays.fill(offset, -1);
+		}
+
+		abstract void encode(F fact);
+
+		abstract F decode(ByteBuffer in, Unit u);
+
+		@Override
+		public F put(Unit u, F fact) {
+			Integer i = slot.get(u);
+			if (i == null) throw new IllegalArgumentException("Unit not in body: " + u);
+			scratch.clear();
+			encode(fact);
+			scratch.flip();
+			int len = scratch.remaining();
+			if (arena.remaining() < len) compact(len);
+			if (offset[i] < 0) count++;
+			offset[i] = arena.position();
+			length[i] = len;
+			arena.put(scratch);
+			recent.put(u, fact);
+			return null;
+		}
+
+		@Override
+		public F get(Object key) {
+			Integer i = slot.get(key);
+			if (i == null || offset[i] < 0) return null;
+			Unit u = (Unit) key;
+			F f = recent.get(u);
+			if (f == null) {
+				f = decode(record(arena, i), u);
+				recent.put(u, f);
+			}
+			return f;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			Integer i = slot.get(key);
+			return i != null && offset[i] >= 0;
+		}
+
+		@Override
+		public int size() { return count; }
+
+		// Entries in body order
+		@Override
+		public Set<Map.Entry<Unit, F>> entrySet() {
+			return new AbstractSet<>() {
+				@Override public int size() { return count; }
+
+				@Override
+				public Iterator<Map.Entry<Unit, F>> iterator() {
+					Iterator<Unit> units = slot.keySet().stream().filter(Table.this::containsKey).iterator();
+					return new Iterator<>() {
+						@Override public boolean hasNext() { return units.hasNext(); }
+
+						@Override
+						public Map.Entry<Unit, F> next() {
+							Unit u = units.next();
+							return new AbstractMap.SimpleImmutableEntry<>(u, get(u));
+						}
+					};
+				}
+			};
+		}
+
+		private ByteBuffer record(ByteBuffer buf, int i) {
+			return buf.duplicate().limit(offset[i] + length[i]).position(offset[i]);
+		}
+
+		// Copy the live records into a fresh arena with room for `need` more bytes
+		private void compact(int need) {
+			long live = 0;
+			for (int i = 0; i < offset.length; i++) if (offset[i] >= 0) live += length[i];
+			long cap = Math.max(MIN_ARENA, 2 * (live + need));
+			if (cap > Integer.MAX_VALUE) throw new IllegalStateException("Off-heap fact table over 2GB");
+			ByteBuffer fresh = ByteBuffer.allocateDirect((int) cap);
+			for (int i = 0; i < offset.length; i++) {
+				if (offset[i] < 0) continue;
+				ByteBuffer rec = record(arena, i);
+				offset[i] = fresh.position();
+				fresh.put(rec);
+			}
+			arena = fresh;
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package pav;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import pav.Analysis.MethodOutputs;
+import pav.Analysis.OutputFile;
+
+import soot.SootClass;
+import soot.SootMethod;
+import soot.util.dot.DotGraph;
+
+/* Staged driver (--pipeline[=DEPTH]): the per-method work of main() split
+ * into stages connected by bounded queues of DEPTH items.
+ *   load    - build the MethodContext (body, listing, CFG) and the dot graph
+ *   analyse - solve the method and collect its output tuples
+ *   encode  - format the output files (pure string work)
+ *   write   - write the files and render the graph on virtual threads
+ * Load and analyse both use Soot, which is not thread-safe, so they take
+ * turns on one lock; encode and write overlap with them. Methods flow
+ * through every stage in class order, and the console output of each
+ * method is printed once its files are written, in that same order.
+ */
+final class Pipeline {
+
+	private Pipeline() {}
+
+	private static final Object END = new Object();
+	private static final Object SOOT = new Object();
+
+	// ctx is null for methods without a body
+	private record Loaded(SootMethod method, MethodContext ctx, DotGraph dot) {}
+
+	private record Analysed(Loaded loaded, MethodOutputs outputs) {}
+
+	private record Encoded(Loaded loaded, List<OutputFile> files) {}
+
+	// A method whose files and graph are being written
+	private record Pending(Loaded loaded, List<Future<String>> tasks) {}
+
+	static void run(List<SootMethod> methods, Map<String, SootClass> innerClasses, int depth) throws Exception {
+		BlockingQueue<Object> loaded = new ArrayBlockingQueue<>(depth);
+		BlockingQueue<Object> analysed = new ArrayBlockingQueue<>(depth);
+		BlockingQueue<Object> encoded = new ArrayBlockingQueue<>(depth);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		Thread load = Thread.ofPlatform().name("pav-load").start(() -> {
+			try {
+				for (SootMethod m : methods) {
+					if (failure.get() != null) break;
+					Loaded l;
+					try {
+						synchronized (SOOT) {
+							MethodContext ctx = MethodContext.of(m);
+							l = new Loaded(m, ctx, Base.buildMethodDependenceGraph(ctx));
+						}
+					} catch (Throwable t) {
+						failure.compareAndSet(null, t);
+						break;
+					}
+					loaded.put(l); // outside the lock: a full queue must not block the analyse stage
+				}
+				loaded.put(END);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Thread analyse = stage("pav-analyse", loaded, analysed, failure, item -> {
+			Loaded l = (Loaded) item;
+			if (l.ctx() == null) return new Analysed(l, null);
+			synchronized (SOOT) {
+				return new Analysed(l, Analysis.collectOutputs(l.ctx(), innerClasses));
+			}
+		});
+		Thread encode = stage("pav-encode", analysed, encoded, failure, item -> {
+			Analysed a = (Analysed) item;
+			List<OutputFile> files = (a.outputs() == null) ? List.of() : Analysis.encodeOutputs(a.outputs());
+			return new Encoded(a.loaded(), files);
+		});
+
+		// Write stage on this thread; the I/O itself runs on virtual threads
+		try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor()) {
+			Deque<Pending> pending = new ArrayDeque<>();
+			for (Object item = encoded.take(); item != END; item = encoded.take()) {
+				if (failure.get() != null) continue; // keep draining so upstream stages can finish
+				Encoded e = (Encoded) item;
+				List<Future<String>> tasks = new ArrayList<>();
+				for (OutputFile f : e.files()) {
+					tasks.add(io.submit(() -> {
+						f.write();
+						return null;
+					}));
+				}
+				if (e.loaded().dot() != null) {
+					tasks.add(io.submit(() -> Base.renderMethodDependenceGraph(e.loaded().method(), e.loaded().dot())));
+				}
+				pending.add(new Pending(e.loaded(), tasks));
+				while (!pending.isEmpty() && pending.peek().tasks().stream().allMatch(Future::isDone)) {
+					report(pending.poll());
+				}
+			}
+			while (!pending.isEmpty()) report(pending.poll());
+		} finally {
+			load.join();
+			analyse.join();
+			encode.join();
+		}
+
+		Throwable t = failure.get();
+		if (t instanceof Exception ex) throw ex;
+		if (t instanceof Error err) throw err;
+	}
+
+	// Same console output as the sequential driver, once the method's writes are done
+	private static void report(Pending p) throws InterruptedException, ExecutionException {
+		List<String> messages = new ArrayList<>();
+		for (Future<String> f : p.tasks()) {
+			String msg = f.get();
+			if (msg != null) messages.add(msg);
+		}
+		System.out.println("\n\nMethod: " + p.loaded().method().getName());
+		MethodContext ctx = p.loaded().ctx();
+		if (ctx != null && !ctx.listing.isEmpty()) System.out.println(ctx.listing);
+		for (String msg : messages) System.out.println(msg);
+	}
+
+	// One worker thread: in -> work -> out. After a failure it only forwards END.
+	private static Thread stage(String name, BlockingQueue<Object> in, BlockingQueue<Object> out,
+	                            AtomicReference<Throwable> failure, Function<Object, Object> work) {
+		return Thread.ofPlatform().name(name).start(() -> {
+			try {
+				for (Object item = in.take(); item != END; item = in.take()) {
+					if (failure.get() != null) continue;
+					try {
+						out.put(work.apply(item));
+					} catch (Throwable t) {
+						failure.compareAndSet(null, t);
+					}
+				}
+				out.put(END);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+}
@@ -0,0 +1,142 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.PointsToFact;
+
+/* Inverted index over the reported points-to facts (--pts-index).
+ *   object  -> postings (program point, local or heap slot holding it)
+ *   slot    -> program points where the slot is non-empty
+ * Keys are per method, since allocation IDs are only unique within one.
+ * Names are interned once; each posting list is a sorted long[] of
+ * (point id << 32 | slot id) or an int[] of point ids, so a lookup is a
+ * hash probe plus a walk over its own postings.
+ * Filled while the facts are reported, queried afterwards; add() and the
+ * queries may come from different threads.
+ */
+final class PointsToIndex {
+
+	record Posting(String method, String point, String slot) {
+		boolean isHeap() { return slot.contains("."); }
+	}
+
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final List<String> names = new ArrayList<>();
+	// id(method + " " + obj) -> postings; id(method + " " + slot) -> points
+	private final Map<Integer, LongList> byObject = new HashMap<>();
+	private final Map<Integer, IntList> bySlot = new HashMap<>();
+	// method -> objects it reports, in first-seen order
+	private final Map<String, Set<String>> objectsOf = new LinkedHashMap<>();
+	private boolean frozen;
+
+	private int id(String s) {
+		Integer i = ids.get(s);
+		if (i == null) {
+			i = names.size();
+			ids.put(s, i);
+			names.add(s);
+		}
+		return i;
+	}
+
+	/* -------- Building -------- */
+
+	synchronized void add(String method, String point, PointsToFact fact) {
+		if (frozen) throw new IllegalStateException("Index already queried");
+		int p = id(point);
+		addAll(method, p, fact.getVarPts());
+		addAll(method, p, fact.getHeapPts());
+	}
+
+	private void addAll(String method, int point, Map<String, Set<String>> slots) {
+		for (Map.Entry<String, Set<String>> e : slots.entrySet()) {
+			if (e.getValue().isEmpty()) continue;
+			int slot = id(e.getKey());
+			bySlot.computeIfAbsent(id(method + " " + e.getKey()), k -> new IntList()).add(point);
+			for (String obj : e.getValue()) {
+				objectsOf.computeIfAbsent(method, k -> new LinkedHashSet<>()).add(obj);
+				byObject.computeIfAbsent(id(method + " " + obj), k -> new LongList()).add(((long) point << 32) | slot);
+			}
+		}
+	}
+
+	// Trim and sort every posting list; done once, on the first query
+	private void freeze() {
+		if (frozen) return;
+		for (LongList l : byObject.values()) l.seal();
+		for (IntList l : bySlot.values()) l.seal();
+		frozen = true;
+	}
+
+	/* -------- Queries -------- */
+
+	// Every (point, local or heap slot) of the method that may hold obj ("newNN" or "null")
+	synchronized List<Posting> holders(String method, String obj) {
+		freeze();
+		Integer key = ids.get(method + " " + obj);
+		LongList l = (key == null) ? null : byObject.get(key);
+		if (l == null) return List.of();
+		List<Posting> out = new ArrayList<>(l.size);
+		for (int i = 0; i < l.size; i++) {
+			long v = l.items[i];
+			out.add(new Posting(method, names.get((int) (v >>> 32)), names.get((int) v)));
+		}
+		return out;
+	}
+
+	// Heap slots of the method that ever hold obj, e.g. heapSlotsHolding(m, "null")
+	synchronized SortedSet<String> heapSlotsHolding(String method, String obj) {
+		SortedSet<String> out = new TreeSet<>();
+		for (Posting p : holders(method, obj)) if (p.isHeap()) out.add(p.slot());
+		return out;
+	}
+
+	// Program points of the method at which the local or heap slot points anywhere
+	synchronized List<String> pointsOf(String method, String slot) {
+		freeze();
+		Integer key = ids.get(method + " " + slot);
+		IntList l = (key == null) ? null : bySlot.get(key);
+		if (l == null) return List.of();
+		List<String> out = new ArrayList<>(l.size);
+		for (int i = 0; i < l.size; i++) out.add(names.get(l.items[i]));
+		return out;
+	}
+
+	synchronized Set<String> methods() { return Collections.unmodifiableSet(objectsOf.keySet()); }
+
+	synchronized Set<String> objects(String method) {
+		return Collections.unmodifiableSet(objectsOf.getOrDefault(method, Set.of()));
+	}
+
+	/* -------- Posting lists -------- */
+
+	private static final class LongList {
+		long[] items = new long[4];
+		int size;
+
+		void add(long v) {
+			if (size == items.length) items = Arrays.copyOf(items, size * 2);
+			items[size++] = v;
+		}
+
+		void seal() {
+			items = Arrays.copyOf(items, size);
+			Arrays.sort(items);
+		}
+	}
+
+	private static final class IntList {
+		int[] items = new int[4];
+		int size;
+
+		void add(int v) {
+			if (size == items.length) items = Arrays.copyOf(items, size * 2);
+			items[size++] = v;
+		}
+
+		void seal() {
+			items = Arrays.copyOf(items, size);
+			Arrays.sort(items);
+		}
+	}
+}
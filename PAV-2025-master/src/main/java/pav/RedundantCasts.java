@@ -0,0 +1,94 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.MethodResult;
+
+import soot.FastHierarchy;
+import soot.Local;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.IdentityStmt;
+import soot.jimple.InvokeExpr;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.NullConstant;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.SimpleLocalDefs;
+
+/* Redundant-checkcast client over the points-to facts (--analyses=...,CAST).
+ * A reference cast `(T) y` always succeeds if every object in pts(y) was
+ * allocated with a subtype of T ("null" always passes). A call result counts
+ * with its declared return type, which bounds whatever the callee returns;
+ * merged objects are checked per site. pts(y) only covers what PTS models, so
+ * every definition of y reaching the cast must be a `new`, `null`, a call, a
+ * copy or cast of such a local, or have a static type that is already a T;
+ * parameters, constants and heap reads of a wider type are not covered.
+ *   Redundant  the checkcast can be dropped
+ *   MayFail    the first object that may not be a T, or the uncovered source
+ * One line per cast, in body order:
+ *   Test.m: in07: Redundant ((java.lang.String) $r3)
+ */
+final class RedundantCasts {
+
+	private RedundantCasts() {}
+
+	static List<String> report(MethodContext ctx, MethodResult res, Budget.Meter meter) {
+		List<String> out = new ArrayList<>();
+		FastHierarchy h = null;
+		LocalDefs defs = null;
+		for (Unit u : ctx.units) {
+			if (!(u instanceof AssignStmt as) || !(as.getRightOp() instanceof CastExpr ce)) continue;
+			if (!(ce.getCastType() instanceof RefLikeType) || !(ce.getOp() instanceof Local y)) continue;
+			meter.pop();
+			if (h == null) {
+				h = Scene.v().getOrMakeFastHierarchy();
+				defs = new SimpleLocalDefs(ctx.cfg);
+			}
+			Type t = ce.getCastType();
+			String why = uncovered(h, defs, y, u, t, new HashSet<>());
+			if (why == null) why = failure(ctx, res, h, u, y, t);
+			out.add(ctx.name + ": " + ctx.pointOf(u) + ": "
+				+ ((why == null) ? "Redundant (" + ce + ")" : "MayFail (" + ce + ": " + why + ")"));
+		}
+		return out;
+	}
+
+	// A definition of y reaching u whose value pts(y) may miss and that need not be a T; null if none
+	private static String uncovered(FastHierarchy h, LocalDefs defs, Local y, Unit u, Type t, Set<Unit> seen) {
+		for (Unit d : defs.getDefsOfAt(y, u)) {
+			if (!seen.add(d)) continue;
+			Value R = (d instanceof IdentityStmt is) ? is.getRightOp() : ((AssignStmt) d).getRightOp();
+			if (h.canStoreType(R.getType(), t)) continue;
+			if (R instanceof NewExpr || R instanceof NewArrayExpr || R instanceof NewMultiArrayExpr
+				|| R instanceof NullConstant || R instanceof InvokeExpr) continue;
+			Value src = (R instanceof CastExpr ce) ? ce.getOp() : R;
+			if (src instanceof Local z) {
+				String why = uncovered(h, defs, z, d, t, seen);
+				if (why != null) return why;
+				continue;
+			}
+			return y.getName() + " = " + R;
+		}
+		return null;
+	}
+
+	// Why (T) y may fail at u judging by pts(y); null if it cannot
+	private static String failure(MethodContext ctx, MethodResult res, FastHierarchy h, Unit u, Local y, Type t) {
+		Set<String> objs = res.ptsIn(u).ptsOfLocal(y.getName());
+		for (String o : new TreeSet<>(objs)) {
+			if ("null".equals(o)) continue;
+			for (String site : ctx.sites.members(o)) {
+				Type st = ctx.sites.siteType(site);
+				if (st == null || !h.canStoreType(st, t)) return site + " is " + st;
+			}
+		}
+		return null;
+	}
+}
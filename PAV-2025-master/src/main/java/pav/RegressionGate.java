@@ -0,0 +1,132 @@
+package pav;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/* Regression and performance gate, run by "mvn verify" (exec execution
+ * "regression-gate"); "--update" rewrites the baseline instead of checking.
+ *  1. Runs Analysis with its default arguments (test.Test) a few times and
+ *     keeps the fastest solver time of every method and phase.
+ *  2. Compares every output/*.output-expected.txt with the output it names.
+ *     A divergence only passes if the baseline lists it together with the
+ *     SHA-256 of the current output, so a known mismatch cannot drift.
+ *  3. Worklist pops must not exceed the baseline; solver time must stay
+ *     within baseline * pav.gate.timeFactor + pav.gate.timeSlackMs.
+ *  4. Runs Analysis on test.Probe once per FixtureRuns.RUNS entry and
+ *     compares each Probe output with the file that run expects.
+ */
+public class RegressionGate {
+	static final Path BASELINE = Path.of("regression-baseline.properties");
+	static final Path OUTPUT = Path.of("output");
+
+	public static void main(String[] args) throws Exception {
+		boolean update = Arrays.asList(args).contains("--update");
+		int runs = Integer.getInteger("pav.gate.runs", 3);
+		double timeFactor = Double.parseDouble(System.getProperty("pav.gate.timeFactor", "3.0"));
+		long timeSlackMicros = 1000L * Long.getLong("pav.gate.timeSlackMs", 50L);
+
+		// method.PHASE -> run with the fewest nanos over all runs
+		Map<String, Budget.Run> best = new TreeMap<>();
+		for (int i = 0; i < runs; i++) {
+			Analysis.main(new String[0]);
+			for (Budget.Run r : Budget.runs()) {
+				best.merge(r.method() + "." + r.phase(), r, (a, b) -> (b.nanos() < a.nanos()) ? b : a);
+			}
+		}
+
+		// output file name -> SHA-256 of the actual output, for every divergence from the expected file
+		Map<String, String> divergent = new TreeMap<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(OUTPUT, "*.output-expected.txt")) {
+			for (Path expected : ds) {
+				String name = expected.getFileName().toString().replace(".output-expected.txt", ".output.txt");
+				Path actual = OUTPUT.resolve(name);
+				byte[] want = Files.readAllBytes(expected);
+				byte[] got = Files.exists(actual) ? Files.readAllBytes(actual) : null;
+				if (got == null) divergent.put(name, "missing");
+				else if (!Arrays.equals(want, got)) divergent.put(name, sha256(got));
+			}
+		}
+
+		List<String> failures = new ArrayList<>();
+		int fixtures = FixtureRuns.check(update, failures);
+
+		if (update) {
+			writeBaseline(best, divergent);
+			System.out.println("Baseline written to " + BASELINE + ": " + best.size() + " solver phases, "
+			                   + divergent.size() + " known divergences, " + fixtures + " fixture outputs");
+			if (!failures.isEmpty()) {
+				throw new IllegalStateException("Fixture runs differ from the run they must match:\n  " + String.join("\n  ", failures));
+			}
+			return;
+		}
+
+		Properties base = new Properties();
+		if (Files.exists(BASELINE)) {
+			try (Reader r = Files.newBufferedReader(BASELINE, StandardCharsets.UTF_8)) {
+				base.load(r);
+			}
+		}
+
+		for (Map.Entry<String, String> e : divergent.entrySet()) {
+			String known = base.getProperty("diverges." + e.getKey());
+			if (known == null) failures.add(e.getKey() + ": differs from its expected file");
+			else if (!known.equals(e.getValue())) failures.add(e.getKey() + ": known divergence changed");
+		}
+		for (String key : base.stringPropertyNames()) {
+			if (key.startsWith("diverges.") && !divergent.containsKey(key.substring("diverges.".length()))) {
+				System.out.println("Now matches its expected file (drop from baseline): " + key.substring("diverges.".length()));
+			}
+		}
+		for (Map.Entry<String, Budget.Run> e : best.entrySet()) {
+			Budget.Run r = e.getValue();
+			String pops = base.getProperty("pops." + e.getKey());
+			String micros = base.getProperty("micros." + e.getKey());
+			if (pops == null || micros == null) {
+				failures.add(e.getKey() + ": not in baseline");
+				continue;
+			}
+			if (r.pops() > Long.parseLong(pops)) {
+				failures.add(e.getKey() + ": " + r.pops() + " worklist pops, baseline " + pops);
+			}
+			long limit = (long) (Long.parseLong(micros) * timeFactor) + timeSlackMicros;
+			if (r.nanos() / 1000 > limit) {
+				failures.add(e.getKey() + ": " + r.nanos() / 1000 + "us, baseline " + micros + "us (limit " + limit + "us)");
+			}
+		}
+
+		if (!failures.isEmpty()) {
+			throw new IllegalStateException("Regression gate failed:\n  " + String.join("\n  ", failures)
+			                                + "\nRe-run with --update once the change is intended.");
+		}
+		System.out.println("Regression gate passed: " + best.size() + " solver phases, " + divergent.size()
+		                   + " known divergences, " + fixtures + " fixture outputs");
+	}
+
+	private static void writeBaseline(Map<String, Budget.Run> best, Map<String, String> divergent) throws IOException {
+		// Written by hand rather than Properties.store to keep a stable, diffable order
+		try (Writer w = Files.newBufferedWriter(BASELINE, StandardCharsets.UTF_8)) {
+			w.write("# Regression gate baseline; regenerate with: mvn exec:java@regression-gate -Dexec.args=--update\n");
+			w.write("# diverges.<output file>: SHA-256 of an accepted output that differs from its expected file\n");
+			for (Map.Entry<String, String> e : divergent.entrySet()) {
+				w.write("diverges." + e.getKey() + "=" + e.getValue() + "\n");
+			}
+			w.write("# pops.<method>.<phase>, micros.<method>.<phase>: solver worklist pops and fastest time\n");
+			for (Map.Entry<String, Budget.Run> e : best.entrySet()) {
+				w.write("pops." + e.getKey() + "=" + e.getValue().pops() + "\n");
+				w.write("micros." + e.getKey() + "=" + e.getValue().nanos() / 1000 + "\n");
+			}
+		}
+	}
+
+	private static String sha256(byte[] data) throws NoSuchAlgorithmException {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+	}
+}
@@ -0,0 +1,230 @@
+package pav;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import soot.Body;
+import soot.Unit;
+import soot.toolkits.graph.UnitGraph;
+
+/* Points-to fixpoint scheduled over the strongly connected components of
+ * the unit graph (--scc-threads=N). Each SCC runs its own Kildall loop
+ * once all predecessor SCCs are final, reading their OUT facts, which are
+ * never mutated. SCCs whose predecessors are done are solved concurrently
+ * on a ForkJoin pool. The transfer functions are monotone and there is no
+ * widening, so every schedule reaches the same least fixpoint as the
+ * sequential worklist.
+ */
+final class SccPointsTo {
+
+	private SccPointsTo() {}
+
+	private static ForkJoinPool pool;
+
+	// One pool per thread count; a replaced pool is shut down so its workers exit
+	private static synchronized ForkJoinPool pool(int threads) {
+		if (pool == null || pool.getParallelism() != threads) {
+			if (pool != null) pool.shutdown();
+			pool = new ForkJoinPool(threads);
+		}
+		return pool;
+	}
+
+	private static final class Scc {
+		final List<Unit> units = new ArrayList<>(); // in body order
+		final Set<Scc> succs = new LinkedHashSet<>();
+		final AtomicInteger pendingPreds = new AtomicInteger();
+	}
+
+	static void solve(Body body, UnitGraph cfg, LatticeElement bottom, Budget.Meter meter, int threads,
+	                  Map<Unit, LatticeElement> ptsIn, Map<Unit, LatticeElement> ptsOut) {
+		List<Scc> sccs = components(body, cfg);
+		Map<Unit, Scc> sccOf = new HashMap<>();
+		for (Scc c : sccs) for (Unit u : c.units) sccOf.put(u, c);
+		for (Scc c : sccs) {
+			for (Unit u : c.units) {
+				for (Unit s : cfg.getSuccsOf(u)) {
+					Scc t = sccOf.get(s);
+					if (t != c && c.succs.add(t)) t.pendingPreds.incrementAndGet();
+				}
+			}
+		}
+
+		// Facts of finished SCCs; written once per unit, read by later SCCs
+		Map<Unit, LatticeElement> finalIn = new ConcurrentHashMap<>();
+		Map<Unit, LatticeElement> finalOut = new ConcurrentHashMap<>();
+		CountDownLatch remaining = new CountDownLatch(sccs.size());
+		AtomicBoolean stop = new AtomicBoolean();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		ForkJoinPool fj = pool(threads);
+		Runner runner = new Runner(cfg, sccOf, bottom, meter, finalIn, finalOut, remaining, stop, failure, fj);
+		for (Scc c : sccs) if (c.pendingPreds.get() == 0) fj.execute(() -> runner.run(c));
+
+		try {
+			remaining.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while solving points-to SCCs", e);
+		}
+		if (failure.get() != null) throw new RuntimeException("Points-to SCC task failed", failure.get());
+
+		// Units left unsolved after a budget stop keep bottom; the caller degrades them
+		for (Unit u : body.getUnits()) {
+			ptsIn.put(u, finalIn.getOrDefault(u, bottom));
+			ptsOut.put(u, finalOut.getOrDefault(u, bottom));
+		}
+	}
+
+	private record Runner(UnitGraph cfg, Map<Unit, Scc> sccOf, LatticeElement bottom, Budget.Meter meter,
+	                      Map<Unit, LatticeElement> finalIn, Map<Unit, LatticeElement> finalOut,
+	                      CountDownLatch remaining, AtomicBoolean stop, AtomicReference<Throwable> failure,
+	                      ForkJoinPool fj) {
+
+		// Solve c, then release its successors; a single newly ready successor runs on this thread
+		void run(Scc c) {
+			while (c != null) {
+				try {
+					if (!stop.get()) solveOne(c);
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+					stop.set(true);
+				}
+				Scc next = null;
+				for (Scc s : c.succs) {
+					if (s.pendingPreds.decrementAndGet() != 0) continue;
+					if (next == null) next = s;
+					else fj.execute(() -> run(s));
+				}
+				remaining.countDown();
+				c = next;
+			}
+		}
+
+		private void solveOne(Scc c) {
+			Map<Unit, LatticeElement> in = new HashMap<>();
+			Map<Unit, LatticeElement> out = new HashMap<>();
+			for (Unit u : c.units) {
+				in.put(u, bottom);
+				out.put(u, bottom);
+			}
+
+			Deque<Unit> wl = new ArrayDeque<>(c.units);
+			while (!wl.isEmpty()) {
+				if (stop.get() || !pop()) return;
+				Unit n = wl.removeFirst();
+
+				LatticeElement newIn;
+				List<Unit> preds = cfg.getPredsOf(n);
+				if (preds.isEmpty()) {
+					newIn = in.get(n);
+				} else {
+					newIn = edgeOf(preds.get(0), n, c, out);
+					for (int i = 1; i < preds.size(); i++) {
+						newIn = newIn.join_op(edgeOf(preds.get(i), n, c, out));
+					}
+				}
+				if (!newIn.equals(in.get(n))) in.put(n, newIn);
+
+				LatticeElement newOut = Analysis.ptsTransfer(n, in.get(n));
+				if (!newOut.equals(out.get(n))) {
+					out.put(n, newOut);
+					if (meter.checksFactSize() && !fits(((Analysis.PointsToFact) newOut).size())) return;
+					for (Unit s : cfg.getSuccsOf(n)) {
+						if (sccOf.get(s) == c && !wl.contains(s)) wl.add(s);
+					}
+				}
+			}
+			finalIn.putAll(in);
+			finalOut.putAll(out);
+		}
+
+		// Fact on the edge p -> n: p's OUT from this component's table or an earlier one's
+		private LatticeElement edgeOf(Unit p, Unit n, Scc c, Map<Unit, LatticeElement> localOut) {
+			LatticeElement out = (sccOf.get(p) == c) ? localOut.get(p) : finalOut.get(p);
+			return Analysis.ptsEdge(cfg, p, n, out);
+		}
+
+		private boolean pop() {
+			synchronized (meter) {
+				if (meter.pop()) return true;
+			}
+			stop.set(true);
+			return false;
+		}
+
+		private boolean fits(int size) {
+			synchronized (meter) {
+				if (meter.fits(size)) return true;
+			}
+			stop.set(true);
+			return false;
+		}
+	}
+
+	// Tarjan's algorithm without recursion; each component lists its units in body order
+	private static List<Scc> components(Body body, UnitGraph cfg) {
+		Map<Unit, Integer> order = new HashMap<>();
+		for (Unit u : body.getUnits()) order.put(u, order.size());
+
+		Map<Unit, Integer> index = new HashMap<>();
+		Map<Unit, Integer> low = new HashMap<>();
+		Deque<Unit> stack = new ArrayDeque<>();
+		Set<Unit> onStack = new HashSet<>();
+		List<Scc> result = new ArrayList<>();
+
+		for (Unit root : body.getUnits()) {
+			if (index.containsKey(root)) continue;
+			Deque<Unit> call = new ArrayDeque<>();
+			Deque<Iterator<Unit>> iters = new ArrayDeque<>();
+			index.put(root, index.size());
+			low.put(root, index.get(root));
+			stack.push(root);
+			onStack.add(root);
+			call.push(root);
+			iters.push(cfg.getSuccsOf(root).iterator());
+
+			while (!call.isEmpty()) {
+				Unit v = call.peek();
+				Iterator<Unit> it = iters.peek();
+				if (it.hasNext()) {
+					Unit w = it.next();
+					if (!index.containsKey(w)) {
+						index.put(w, index.size());
+						low.put(w, index.get(w));
+						stack.push(w);
+						onStack.add(w);
+						call.push(w);
+						iters.push(cfg.getSuccsOf(w).iterator());
+					} else if (onStack.contains(w)) {
+						low.put(v, Math.min(low.get(v), index.get(w)));
+					}
+					continue;
+				}
+				call.pop();
+				iters.pop();
+				if (!call.isEmpty()) {
+					Unit parent = call.peek();
+					low.put(parent, Math.min(low.get(parent), low.get(v)));
+				}
+				if (low.get(v).equals(index.get(v))) {
+					Scc c = new Scc();
+					Unit w;
+					do {
+						w = stack.pop();
+						onStack.remove(w);
+						c.units.add(w);
+					} while (w != v);
+					c.units.sort(Comparator.comparing(order::get));
+					result.add(c);
+				}
+			}
+		}
+		return result;
+	}
+}
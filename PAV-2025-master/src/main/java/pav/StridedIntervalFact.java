@@ -0,0 +1,381 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.Interval;
+import pav.Analysis.IntervalFact;
+
+import soot.Local;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AddExpr;
+import soot.jimple.AssignStmt;
+import soot.jimple.ConditionExpr;
+import soot.jimple.EqExpr;
+import soot.jimple.GeExpr;
+import soot.jimple.GtExpr;
+import soot.jimple.IfStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.LeExpr;
+import soot.jimple.LongConstant;
+import soot.jimple.LtExpr;
+import soot.jimple.MulExpr;
+import soot.jimple.NeExpr;
+import soot.jimple.NegExpr;
+import soot.jimple.Stmt;
+import soot.jimple.SubExpr;
+
+/* Strided intervals over int locals (--strided), for the AASC check.
+ * A value is an Interval reduced by a congruence x = rem (mod mod), so a
+ * loop index stepping by 2 from 0 below 10 is known to stop at 8, and
+ * i + 1 stays below 10. mod 0 means exactly rem; mod 1 carries no
+ * congruence. Bounds use Interval's saturated arithmetic and are kept
+ * aligned to the congruence. The congruence rules are the usual ones:
+ *   join     gcd(m1, m2, |r1 - r2|)
+ *   add/sub  gcd(m1, m2), r1 +/- r2
+ *   mul      gcd(m1 m2, m1 r2, m2 r1), r1 r2
+ * solve() runs a worklist of its own with widening at loop headers. Only
+ * the bounds need widening: a congruence can only weaken to a divisor of
+ * its modulus, so it cannot climb forever. A couple of plain rounds after
+ * that narrow what widening overshot (i <= 2 after "while (i < 2) i++").
+ */
+final class StridedIntervalFact implements LatticeElement {
+	// Descending rounds after the widened fixpoint
+	private static final int NARROWING_ROUNDS = 2;
+
+	/* -------- One strided interval -------- */
+
+	static final class Strided {
+		final Interval range;
+		final long mod;
+		final long rem;
+
+		private Strided(Interval range, long mod, long rem) {
+			this.range = range;
+			this.mod = mod;
+			this.rem = rem;
+		}
+
+		static Strided top() { return new Strided(Interval.top(), 1, 0); }
+
+		static Strided constant(long v) { return new Strided(Interval.constant(v), 0, v); }
+
+		// Range trimmed to the congruence; null when no value satisfies both
+		static Strided of(Interval range, long mod, long rem) {
+			if (range == null) return null;
+			if (mod == 0) {
+				Interval r = range.meet(Interval.constant(rem));
+				return (r == null) ? null : new Strided(r, 0, rem);
+			}
+			rem = Math.floorMod(rem, mod);
+			long lo = align(range.lo, mod, rem, true);
+			long hi = align(range.hi, mod, rem, false);
+			if (lo > hi) return null;
+			if (lo == hi) return constant(lo);
+			return new Strided(new Interval(lo, hi), mod, rem);
+		}
+
+		// Nearest value >= v (up) or <= v (down) that is rem modulo mod; infinities stay
+		private static long align(long v, long mod, long rem, boolean up) {
+			if (v == Interval.NEG_INF || v == Interval.POS_INF || mod == 1) return v;
+			try {
+				long d = Math.floorMod(Math.subtractExact(rem, v), mod);
+				return up ? Math.addExact(v, d) : Math.subtractExact(v, (mod - d) % mod);
+			} catch (ArithmeticException e) {
+				return v;
+			}
+		}
+
+		Strided join(Strided o) {
+			long m = gcd(gcd(mod, o.mod), diff(rem, o.rem));
+			return of(range.join(o.range), m, rem);
+		}
+
+		// this = value at the previous visit of a loop header, o = the new joined value
+		Strided widen(Strided o) {
+			Strided j = join(o);
+			return of(range.widen(j.range), j.mod, j.rem);
+		}
+
+		Strided meet(Interval r) { return of(range.meet(r), mod, rem); }
+
+		// On overflow of the congruence arithmetic only the range is kept
+		Strided add(Strided o) {
+			try {
+				return of(range.add(o.range), gcd(mod, o.mod), Math.addExact(rem, o.rem));
+			} catch (ArithmeticException e) {
+				return of(range.add(o.range), 1, 0);
+			}
+		}
+
+		Strided sub(Strided o) {
+			try {
+				return of(range.sub(o.range), gcd(mod, o.mod), Math.subtractExact(rem, o.rem));
+			} catch (ArithmeticException e) {
+				return of(range.sub(o.range), 1, 0);
+			}
+		}
+
+		Strided mul(Strided o) {
+			try {
+				long m = gcd(gcd(Math.multiplyExact(mod, o.mod), Math.multiplyExact(mod, o.rem)), Math.multiplyExact(o.mod, rem));
+				return of(range.mul(o.range), m, Math.multiplyExact(rem, o.rem));
+			} catch (ArithmeticException e) {
+				return of(range.mul(o.range), 1, 0);
+			}
+		}
+
+		Strided negate() { return (rem == Long.MIN_VALUE) ? of(range.negate(), 1, 0) : of(range.negate(), mod, -rem); }
+
+		private static long diff(long a, long b) {
+			try {
+				return Math.abs(Math.subtractExact(a, b));
+			} catch (ArithmeticException e) {
+				return 1;
+			}
+		}
+
+		private static long gcd(long a, long b) {
+			a = Math.abs(a);
+			b = Math.abs(b);
+			while (b != 0) {
+				long t = a % b;
+				a = b;
+				b = t;
+			}
+			return (a < 0) ? 1 : a; // |Long.MIN_VALUE|
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Strided s && range.equals(s.range) && mod == s.mod && rem == s.rem;
+		}
+
+		@Override
+		public int hashCode() { return range.hashCode() * 31 + Long.hashCode(mod) * 7 + Long.hashCode(rem); }
+
+		@Override
+		public String toString() {
+			return (mod <= 1) ? range.format() : range.format() + " = " + rem + " mod " + mod;
+		}
+	}
+
+	/* -------- The fact: int local -> strided interval -------- */
+
+	// Absent locals have no value yet (bottom in joins) and read as top
+	private final Map<String, Strided> vals;
+	private final Map<String, Type> localTypes;
+	// false only for the bottom fact of an unreached unit or an infeasible branch
+	private final boolean reachable;
+
+	private StridedIntervalFact(Map<String, Strided> vals, Map<String, Type> localTypes, boolean reachable) {
+		this.vals = vals;
+		this.localTypes = localTypes;
+		this.reachable = reachable;
+	}
+
+	static StridedIntervalFact bottom(Map<String, Type> localTypes) {
+		return new StridedIntervalFact(Map.of(), localTypes, false);
+	}
+
+	// Method entry: int parameters are unknown
+	static StridedIntervalFact entry(Map<String, Type> localTypes, Set<String> intParams) {
+		Map<String, Strided> v = new HashMap<>();
+		for (String p : intParams) v.put(p, Strided.top());
+		return new StridedIntervalFact(v, localTypes, true);
+	}
+
+	// Value of an int operand; null if the unit is unreachable
+	Strided valueOf(Value v) {
+		return reachable ? eval(v) : null;
+	}
+
+	private Strided eval(Value v) {
+		if (v instanceof IntConstant ic) return Strided.constant(ic.value);
+		if (v instanceof LongConstant lc) return Strided.constant(lc.value);
+		if (v instanceof Local l) {
+			Strided s = vals.get(l.getName());
+			return (s != null) ? s : Strided.top();
+		}
+		Strided r = null;
+		if (v instanceof AddExpr e) r = eval(e.getOp1()).add(eval(e.getOp2()));
+		else if (v instanceof SubExpr e) r = eval(e.getOp1()).sub(eval(e.getOp2()));
+		else if (v instanceof MulExpr e) r = eval(e.getOp1()).mul(eval(e.getOp2()));
+		else if (v instanceof NegExpr e) r = eval(e.getOp()).negate();
+		// Division, shifts, casts, lengths, heap reads, calls: unknown
+		return (r != null) ? r : Strided.top();
+	}
+
+	private boolean isIntLocal(Value v) {
+		return v instanceof Local l && IntervalFact.isInt(localTypes.get(l.getName()));
+	}
+
+	@Override
+	public LatticeElement join_op(LatticeElement r) {
+		StridedIntervalFact o = (StridedIntervalFact) r;
+		if (!o.reachable) return this;
+		if (!reachable) return o;
+		Map<String, Strided> v = new HashMap<>(vals);
+		for (Map.Entry<String, Strided> e : o.vals.entrySet()) v.merge(e.getKey(), e.getValue(), Strided::join);
+		return new StridedIntervalFact(v, localTypes, true);
+	}
+
+	// this = previous IN of a loop header, next = its new joined IN
+	StridedIntervalFact widen(StridedIntervalFact next) {
+		if (!reachable) return next;
+		StridedIntervalFact j = (StridedIntervalFact) join_op(next);
+		Map<String, Strided> v = new HashMap<>(j.vals);
+		for (Map.Entry<String, Strided> e : vals.entrySet()) v.put(e.getKey(), e.getValue().widen(j.vals.get(e.getKey())));
+		return new StridedIntervalFact(v, localTypes, true);
+	}
+
+	@Override
+	public boolean equals(LatticeElement r) {
+		return r instanceof StridedIntervalFact o && reachable == o.reachable && vals.equals(o.vals);
+	}
+
+	@Override
+	public LatticeElement tf_assign(Stmt st) {
+		if (!reachable || !(st instanceof AssignStmt as) || !isIntLocal(as.getLeftOp())) return this;
+		Map<String, Strided> v = new HashMap<>(vals);
+		v.put(((Local) as.getLeftOp()).getName(), eval(as.getRightOp()));
+		return new StridedIntervalFact(v, localTypes, true);
+	}
+
+	// branch: whether the condition holds (the jump edge)
+	@Override
+	public LatticeElement tf_cond(boolean branch, Stmt st) {
+		if (!reachable || !(st instanceof IfStmt ifst) || !(ifst.getCondition() instanceof ConditionExpr ce)) return this;
+		Value op1 = ce.getOp1();
+		Value op2 = ce.getOp2();
+		if (!isIntLocal(op1) && !isIntLocal(op2)) return this;
+		Strided a = eval(op1);
+		Strided b = eval(op2);
+
+		// Negate the comparison on the fall-through edge
+		String op = (ce instanceof LtExpr) ? "<" : (ce instanceof LeExpr) ? "<=" : (ce instanceof GtExpr) ? ">"
+		          : (ce instanceof GeExpr) ? ">=" : (ce instanceof EqExpr) ? "==" : (ce instanceof NeExpr) ? "!=" : null;
+		if (op == null) return this;
+		if (!branch) op = switch (op) {
+			case "<" -> ">=";
+			case "<=" -> ">";
+			case ">" -> "<=";
+			case ">=" -> "<";
+			case "==" -> "!=";
+			default -> "==";
+		};
+
+		long NI = Interval.NEG_INF, PI = Interval.POS_INF;
+		Strided a2, b2;
+		switch (op) {
+			case "<" -> {
+				a2 = a.meet(new Interval(NI, dec(b.range.hi)));
+				b2 = b.meet(new Interval(inc(a.range.lo), PI));
+			}
+			case "<=" -> {
+				a2 = a.meet(new Interval(NI, b.range.hi));
+				b2 = b.meet(new Interval(a.range.lo, PI));
+			}
+			case ">" -> {
+				a2 = a.meet(new Interval(inc(b.range.lo), PI));
+				b2 = b.meet(new Interval(NI, dec(a.range.hi)));
+			}
+			case ">=" -> {
+				a2 = a.meet(new Interval(b.range.lo, PI));
+				b2 = b.meet(new Interval(NI, a.range.hi));
+			}
+			case "==" -> {
+				a2 = a.meet(b.range);
+				b2 = b.meet(a.range);
+			}
+			default -> {
+				a2 = excludeBound(a, b);
+				b2 = excludeBound(b, a);
+			}
+		}
+		if (a2 == null || b2 == null) return bottom(localTypes); // infeasible edge
+
+		Map<String, Strided> v = new HashMap<>(vals);
+		if (isIntLocal(op1)) v.put(((Local) op1).getName(), a2);
+		if (isIntLocal(op2)) v.put(((Local) op2).getName(), b2);
+		return new StridedIntervalFact(v, localTypes, true);
+	}
+
+	// x != k for a constant k can only shave an end of x's range
+	private static Strided excludeBound(Strided x, Strided other) {
+		if (other.mod != 0) return x;
+		long k = other.rem;
+		if (x.mod == 0) return (x.rem == k) ? null : x;
+		if (x.range.lo == k) return x.meet(new Interval(inc(k), Interval.POS_INF));
+		if (x.range.hi == k) return x.meet(new Interval(Interval.NEG_INF, dec(k)));
+		return x;
+	}
+
+	private static long inc(long v) {
+		return (v == Interval.NEG_INF || v == Interval.POS_INF) ? v : v + 1;
+	}
+
+	private static long dec(long v) {
+		return (v == Interval.NEG_INF || v == Interval.POS_INF) ? v : v - 1;
+	}
+
+	/* -------- Solver -------- */
+
+	/* IN fact of every unit; null if the phase ran over its budget.
+	 * An IfStmt's successors get its condition refined per edge.
+	 */
+	static Map<Unit, StridedIntervalFact> solve(MethodContext ctx, Budget.Meter meter) {
+		StridedIntervalFact bottom = bottom(ctx.localTypes);
+		Map<Unit, StridedIntervalFact> in = new HashMap<>();
+		for (Unit u : ctx.units) in.put(u, bottom);
+
+		Deque<Unit> wl = new ArrayDeque<>(ctx.units);
+		while (!wl.isEmpty()) {
+			if (!meter.pop()) {
+				meter.finish();
+				return null;
+			}
+			Unit n = wl.removeFirst();
+			List<Unit> preds = ctx.cfg.getPredsOf(n);
+			StridedIntervalFact newIn;
+			if (preds.isEmpty()) {
+				newIn = entry(ctx.localTypes, ctx.intParamLocals);
+			} else {
+				newIn = bottom;
+				for (Unit p : preds) newIn = (StridedIntervalFact) newIn.join_op(edge(ctx, p, n, in.get(p)));
+				if (ctx.loopHeaders.contains(n)) newIn = in.get(n).widen(newIn);
+			}
+			if (!newIn.equals(in.get(n))) {
+				in.put(n, newIn);
+				for (Unit s : ctx.cfg.getSuccsOf(n)) if (!wl.contains(s)) wl.add(s);
+			}
+		}
+
+		// Starting from a post-fixpoint, every plain round stays sound
+		for (int round = 0; round < NARROWING_ROUNDS; round++) {
+			for (Unit n : ctx.units) {
+				List<Unit> preds = ctx.cfg.getPredsOf(n);
+				if (preds.isEmpty()) continue;
+				if (!meter.pop()) {
+					meter.finish();
+					return null;
+				}
+				StridedIntervalFact f = bottom;
+				for (Unit p : preds) f = (StridedIntervalFact) f.join_op(edge(ctx, p, n, in.get(p)));
+				in.put(n, f);
+			}
+		}
+		meter.finish();
+		return in;
+	}
+
+	// Fact flowing along p -> n
+	private static StridedIntervalFact edge(MethodContext ctx, Unit p, Unit n, StridedIntervalFact pIn) {
+		if (!(p instanceof IfStmt ifst)) return (StridedIntervalFact) pIn.tf_assign((Stmt) p);
+		StridedIntervalFact f = bottom(ctx.localTypes);
+		if (n == ifst.getTarget()) f = (StridedIntervalFact) f.join_op(pIn.tf_cond(true, ifst));
+		if (n == ctx.body.getUnits().getSuccOf(ifst)) f = (StridedIntervalFact) f.join_op(pIn.tf_cond(false, ifst));
+		return f;
+	}
+}
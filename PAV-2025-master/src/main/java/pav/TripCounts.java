@@ -0,0 +1,225 @@
+package pav;
+
+import java.util.*;
+
+import pav.Analysis.Interval;
+import pav.Analysis.IntervalFact;
+import pav.Analysis.MethodResult;
+
+import soot.Local;
+import soot.LongType;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AddExpr;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.ConditionExpr;
+import soot.jimple.EqExpr;
+import soot.jimple.GeExpr;
+import soot.jimple.GtExpr;
+import soot.jimple.IfStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.LeExpr;
+import soot.jimple.LtExpr;
+import soot.jimple.NeExpr;
+import soot.jimple.SubExpr;
+import soot.toolkits.graph.MHGDominatorsFinder;
+
+/* Loop trip-count client (--analyses=...,TRIP).
+ * For each natural loop whose header is its exit test (the shape javac gives
+ * `for` and `while`), finds an induction variable v, defined in the loop only
+ * by one `v = v + c` / `v = v - c` that runs once on every iteration, and
+ * bounds how often the body runs from the IA intervals of v on entry and of
+ * the other operand of the test:
+ *   Constant N      always exactly N iterations
+ *   Bounded [m, M]  between m and M (m = 0 when the loop has other exits)
+ *   Unknown (why)   no finite upper bound could be derived
+ * One line per loop, in header order, keyed by the header's program point:
+ *   Test.m: in04: Constant 10 (i1 = [0, 0]; i1 < [10, 10]; i1 += 1)
+ */
+final class TripCounts {
+
+	private TripCounts() {}
+
+	static List<String> report(MethodContext ctx, MethodResult res, Budget.Meter meter) {
+		List<String> out = new ArrayList<>();
+		if (ctx.loops.isEmpty()) return out;
+		MHGDominatorsFinder<Unit> dom = new MHGDominatorsFinder<>(ctx.cfg);
+		for (Map.Entry<Unit, Set<Unit>> e : ctx.loops.entrySet()) {
+			meter.pop();
+			out.add(ctx.name + ": " + ctx.pointOf(e.getKey()) + ": " + bound(ctx, res, dom, e.getKey(), e.getValue()));
+		}
+		return out;
+	}
+
+	private static String bound(MethodContext ctx, MethodResult res, MHGDominatorsFinder<Unit> dom,
+	                            Unit header, Set<Unit> loop) {
+		if (!(header instanceof IfStmt test)) return "Unknown (exit test not at the loop header)";
+		boolean exitOnTrue = !loop.contains(test.getTarget());
+		boolean leaves = false;
+		for (Unit s : ctx.cfg.getSuccsOf(test)) if (!loop.contains(s)) leaves = true;
+		if (!leaves) return "Unknown (the header test does not leave the loop)";
+		int exits = 0;
+		for (Unit u : loop) for (Unit s : ctx.cfg.getSuccsOf(u)) if (!loop.contains(s)) exits++;
+
+		// Continue condition `l rel r`: the test itself, or its negation when the jump leaves
+		ConditionExpr ce = (ConditionExpr) test.getCondition();
+		String rel = symbol(ce);
+		if (rel == null) return "Unknown (unsupported test)";
+		if (exitOnTrue) rel = negate(rel);
+		Value l = ce.getOp1(), r = ce.getOp2();
+
+		// Induction variable on the left
+		AssignStmt inc = induction(ctx, dom, header, loop, l);
+		if (inc == null) {
+			inc = induction(ctx, dom, header, loop, r);
+			if (inc == null) return "Unknown (no induction variable)";
+			Value t = l; l = r; r = t;
+			rel = mirror(rel);
+		}
+		Local vl = (Local) l;
+		String v = vl.getName();
+		long step = step(ctx, inc);
+
+		// v on entry: joined over the edges into the header from outside the loop
+		Interval init = null;
+		for (Unit p : ctx.cfg.getPredsOf(header)) {
+			if (loop.contains(p)) continue;
+			IntervalFact f = res.iaEdgeFact(p, header);
+			Interval i = (f == null) ? null : f.getInterval(v);
+			if (i == null) return "Unknown (" + v + " has no value on entry)";
+			init = (init == null) ? i : init.join(i);
+		}
+		if (init == null) return "Unknown (no loop entry)";
+
+		// The bound must not change inside the loop
+		Interval b;
+		if (r instanceof IntConstant ic) {
+			b = Interval.constant(ic.value);
+		} else if (r instanceof Local rl && !definedIn(loop, rl)) {
+			b = res.iaIn(test).getInterval(rl.getName());
+			if (b == null) return "Unknown (" + rl.getName() + " has no value)";
+		} else {
+			return "Unknown (bound changes in the loop)";
+		}
+
+		String shape = " (" + v + " = " + init.format() + "; " + v + " " + rel + " " + b.format() + "; "
+			+ v + (step > 0 ? " += " + step : " -= " + -step) + ")";
+		boolean up = step > 0;
+		long s = Math.abs(step);
+		int inclusive = (rel.equals("<=") || rel.equals(">=")) ? 1 : 0;
+		if (rel.equals("==")) return "Unknown (unsupported test)" + shape;
+		if (!rel.equals("!=") && rel.startsWith("<") != up) return "Unknown (step moves away from the bound)" + shape;
+		if (rel.equals("!=") && (s != 1 || !(up ? init.hi <= b.lo : init.lo >= b.hi)))
+			return "Unknown (step may skip the bound)" + shape;
+
+		// Distance to cover before the test fails: B - v going up, v - B going down (B exclusive)
+		long dMin, dMax;
+		if (up) {
+			if (b.hi == Interval.POS_INF || init.lo == Interval.NEG_INF) return "Unknown (unbounded)" + shape;
+			if (!(vl.getType() instanceof LongType) && b.hi + inclusive - 1 + s > Integer.MAX_VALUE)
+				return "Unknown (" + v + " may overflow)" + shape;
+			dMin = (b.lo == Interval.NEG_INF || init.hi == Interval.POS_INF) ? 0 : b.lo + inclusive - init.hi;
+			dMax = b.hi + inclusive - init.lo;
+		} else {
+			if (b.lo == Interval.NEG_INF || init.hi == Interval.POS_INF) return "Unknown (unbounded)" + shape;
+			if (!(vl.getType() instanceof LongType) && b.lo - inclusive + 1 - s < Integer.MIN_VALUE)
+				return "Unknown (" + v + " may overflow)" + shape;
+			dMin = (b.hi == Interval.POS_INF || init.lo == Interval.NEG_INF) ? 0 : init.lo - b.hi + inclusive;
+			dMax = init.hi - b.lo + inclusive;
+		}
+		long min = (exits > 1) ? 0 : trips(dMin, s);
+		long max = trips(dMax, s);
+		if (min == max) return "Constant " + max + shape;
+		return "Bounded [" + min + ", " + max + "]" + shape;
+	}
+
+	// Iterations needed to cover an exclusive distance d in steps of s
+	private static long trips(long d, long s) {
+		return (d <= 0) ? 0 : (d + s - 1) / s;
+	}
+
+	/* v's only definition in the loop, if it is `v = v +/- c` (c != 0) on every iteration:
+	 * it dominates every back edge and sits in no inner loop. */
+	private static AssignStmt induction(MethodContext ctx, MHGDominatorsFinder<Unit> dom,
+	                                    Unit header, Set<Unit> loop, Value v) {
+		if (!(v instanceof Local vl) || !IntervalFact.isInt(vl.getType())) return null;
+		AssignStmt def = null;
+		for (Unit u : loop) {
+			if (u instanceof AssignStmt as && as.getLeftOp() == vl) {
+				if (def != null) return null;
+				def = as;
+			}
+		}
+		if (def == null || step(ctx, def) == 0) return null;
+		for (Unit p : ctx.cfg.getPredsOf(header)) {
+			if (loop.contains(p) && !dom.isDominatedBy(p, def)) return null;
+		}
+		for (Map.Entry<Unit, Set<Unit>> inner : ctx.loops.entrySet()) {
+			if (inner.getKey() != header && loop.contains(inner.getKey()) && inner.getValue().contains(def)) return null;
+		}
+		return def;
+	}
+
+	/* c for `v = v + c` / `v = c + v`, -c for `v = v - c`; 0 for anything else.
+	 * c may sit in a temp: javac's `i -= 3` becomes `$t = (int) -3; i = i + $t`. */
+	private static long step(MethodContext ctx, AssignStmt as) {
+		Value v = as.getLeftOp();
+		Value R = as.getRightOp();
+		if (R instanceof AddExpr ae) {
+			if (ae.getOp1() == v) return constant(ctx, ae.getOp2());
+			if (ae.getOp2() == v) return constant(ctx, ae.getOp1());
+		} else if (R instanceof SubExpr se && se.getOp1() == v) {
+			return -constant(ctx, se.getOp2());
+		}
+		return 0;
+	}
+
+	// An int constant, or a local whose only definition is one (through a cast); 0 otherwise
+	private static long constant(MethodContext ctx, Value c) {
+		if (c instanceof CastExpr ce) c = ce.getOp();
+		if (c instanceof IntConstant ic) return ic.value;
+		if (!(c instanceof Local l)) return 0;
+		Value def = null;
+		for (Unit u : ctx.units) {
+			if (u instanceof AssignStmt as && as.getLeftOp() == l) {
+				if (def != null) return 0;
+				def = as.getRightOp();
+			}
+		}
+		if (def instanceof CastExpr ce) def = ce.getOp();
+		return (def instanceof IntConstant ic) ? ic.value : 0;
+	}
+
+	private static boolean definedIn(Set<Unit> loop, Local l) {
+		for (Unit u : loop) {
+			if (u instanceof AssignStmt as && as.getLeftOp() == l) return true;
+		}
+		return false;
+	}
+
+	private static String symbol(ConditionExpr ce) {
+		if (ce instanceof LtExpr) return "<";
+		if (ce instanceof LeExpr) return "<=";
+		if (ce instanceof GtExpr) return ">";
+		if (ce instanceof GeExpr) return ">=";
+		if (ce instanceof EqExpr) return "==";
+		if (ce instanceof NeExpr) return "!=";
+		return null;
+	}
+
+	private static String negate(String rel) {
+		return switch (rel) {
+			case "<" -> ">="; case "<=" -> ">"; case ">" -> "<="; case ">=" -> "<";
+			case "==" -> "!="; default -> "==";
+		};
+	}
+
+	// a rel b  <=>  b mirror(rel) a
+	private static String mirror(String rel) {
+		return switch (rel) {
+			case "<" -> ">"; case "<=" -> ">="; case ">" -> "<"; case ">=" -> "<=";
+			default -> rel;
+		};
+	}
+}
@@ -0,0 +1,326 @@
+package test;
+
+/* Fixtures for the regression gate (pav.RegressionGate): one method per case
+ * of the opt-in flags and client reports, analysed under every run listed in
+ * pav.FixtureRuns.RUNS. Expected outputs live in regression/default/, and in
+ * regression/<run>/ for the files a run's flags change.
+ */
+public class Probe {
+	protected Probe f, next;
+	protected MyInt mfld;
+	static Probe sink;
+
+	public static class MyInt {
+		public int f = 1;
+	}
+
+	public static class Box {
+		Object g;
+	}
+
+	// --strided: both accesses stay in bounds because i is even and below 10
+	private static void strided_01(int n) {
+		int[] a = new int[10];
+		for (int i = 0; i < 10; i += 2) {
+			a[i] = 1;
+			a[i + 1] = 2;
+		}
+		int[] b = new int[12];
+		for (int j = 1; j < n && j < 12; j += 4) {
+			b[j + 2] = b[j];
+		}
+	}
+
+	// --pts-null-refine: a holds no null inside the != null branch and after the == null return
+	private static void nullRefine_01(int n) {
+		int[] a = null;
+		if (n > 0) a = new int[4];
+		if (a != null) {
+			a[1] = 2;
+		}
+		if (a == null) return;
+		a[2] = 3;
+	}
+
+	// --pts-null-refine: c == b.f narrows c to the objects b.f may hold
+	private static void nullRefine_02(int n) {
+		Probe a = new Probe();
+		Probe b = new Probe();
+		Probe c = (n > 0) ? a : null;
+		b.f = a;
+		if (c == b.f) {
+			c.next = b;
+		}
+	}
+
+	// --ia-heap: strong and weak updates of pos.f and w.f; the call sets every slot to top
+	private static void iaHeap_01(int n) {
+		int[] buf = new int[8];
+		MyInt pos = new MyInt();
+		pos.f = 3;
+		buf[pos.f] = 1;
+		MyInt q = pos;
+		if (n > 0) q.f = 5;
+		buf[pos.f] = 2;
+		pos.f = n;
+		buf[pos.f] = 3;
+		MyInt w = null;
+		for (int i = 0; i < 2; i++) { w = new MyInt(); w.f = 2; }
+		buf[w.f] = 4;
+		pos.f = 1;
+		strided_01(0);
+		buf[pos.f] = 5;
+	}
+
+	// --ia-heap: r.f = 5 writes through a load of this.mfld, which may be o; x is top
+	private void iaHeap_02() {
+		MyInt o = new MyInt();
+		this.mfld = o;
+		MyInt r = this.mfld;
+		r.f = 5;
+		int x = o.f;
+	}
+
+	// --pts-strong: the second write to a.f replaces b; writes through the loop's summary object add
+	private static void ptsStrong_01(int n) {
+		Probe a = new Probe();
+		Probe b = new Probe();
+		Probe c = new Probe();
+		a.f = b;
+		a.f = c;
+		Probe x = a.f;
+		Probe s = null;
+		for (int i = 0; i < n; i++) {
+			s = new Probe();
+			s.f = b;
+			s.f = c;
+		}
+		Probe y = s.f;
+	}
+
+	// ESC: stored in a static, stored into a parameter, passed to a call, returned, and kept local
+	private static Probe escape_01(Probe p) {
+		Probe a = new Probe();
+		Probe b = new Probe();
+		a.f = b;
+		sink = a;
+		Probe c = new Probe();
+		p.f = c;
+		Probe d = new Probe();
+		d.hashCode();
+		Probe e = new Probe();
+		Probe g = new Probe();
+		e.f = g;
+		return new Probe();
+	}
+
+	// ALLOC: allocations at loop depth 1 and 2, some of which outlive their iteration
+	private static void loopAlloc_01(int n) {
+		Probe keep = null;
+		Probe t = new Probe();
+		for (int i = 0; i < n; i++) {
+			Probe tmp = new Probe();
+			tmp.f = null;
+			keep = new Probe();
+			for (int j = 0; j < n; j++) {
+				int[] scratch = new int[4];
+				scratch[0] = j;
+				t.f = new Probe();
+			}
+		}
+		keep.next = null;
+	}
+
+	// TRIP: constant and interval bounds, negative steps, an early exit, a nested loop, a varying step
+	private static int tripCount_01(boolean flag) {
+		int t = 0;
+		for (int i = 0; i < 10; i++) t += i;
+		int n = flag ? 3 : 7;
+		for (int i = 0; i <= n; i += 2) t += i;
+		for (int i = 20; i > 0; i -= 3) t -= i;
+		for (int i = 0; i != 5; i++) { if (t > 100) break; t += 1; }
+		for (int i = 0; i < 4; i++) for (int j = i; j < 4; j++) t += j;
+		int k = 0;
+		while (k < 8) { k++; if (t > 3) k++; }
+		return t;
+	}
+
+	// NPE: a conditionally written field, a parameter, a call result, a null-or-object local
+	private static int nullCheck_01(Probe p, boolean flag) {
+		Probe a = new Probe();
+		if (flag) a.f = new Probe();
+		Probe b = a.f;
+		Probe q = p.f;
+		Probe c = escape_01(p);
+		Probe d = c.next;
+		int[] arr = new int[3];
+		int n = arr.length;
+		Probe e = flag ? null : a;
+		if (e != null) n += e.hashCode();
+		Probe w = new Probe();
+		w.f = new Probe();
+		n += w.f.hashCode();
+		return n + b.hashCode() + q.hashCode() + d.hashCode();
+	}
+
+	// NPE: b.g is last set to the parameter p, so x may be null
+	private static int nullCheck_02(Object p) {
+		Box b = new Box();
+		b.g = new Object();
+		b.g = p;
+		Object x = b.g;
+		return x.hashCode();
+	}
+
+	// NPE: a later write of null, and a write on one path only, both reach the load
+	private static int nullCheck_03(boolean flag) {
+		Box b = new Box();
+		b.g = new Object();
+		if (flag) b.g = null;
+		Object x = b.g;
+		Box c = new Box();
+		c.g = new Object();
+		Object y = c.g;
+		return x.hashCode() + y.hashCode();
+	}
+
+	// NPE: this and loads through it
+	private int nullCheck_04() {
+		return this.f.hashCode() + this.hashCode();
+	}
+
+	// NPE: b.g is set to p after the load in the loop body, so x may be null from the second iteration on
+	private static int nullCheck_05(Object p, int n) {
+		Box b = new Box();
+		b.g = new Object();
+		int h = 0;
+		for (int i = 0; i < n; i++) {
+			Object x = b.g;
+			h += x.hashCode();
+			b.g = p;
+		}
+		return h;
+	}
+
+	// NPE: the call sets b.g to null between the write and the load
+	private static int nullCheck_06() {
+		Box b = new Box();
+		b.g = new Object();
+		clear(b);
+		Object x = b.g;
+		return x.hashCode();
+	}
+
+	private static void clear(Box b) {
+		b.g = null;
+	}
+
+	// DEAD: constant conditions, a nested branch under a dead one, and range tests that always hold
+	private static int deadBranch_01(int p) {
+		int a = 3;
+		int b = 0;
+		if (a > 5) {
+			b = 7;
+			if (b < 2) b = 9;
+		} else {
+			b = 1;
+		}
+		int c = 100000;
+		if (p > 0) c = 200000;
+		if (c >= 100000) b += 2;
+		int d = 0;
+		for (int i = 0; i < 5; i++) {
+			if (i > 8) d = -1;
+			d += i;
+		}
+		return b + d;
+	}
+
+	// DEAD: a nested branch under a dead one, ahead of enough units to leave the off-heap cache
+	private static int deadBranch_02(int p) {
+		int a = 3;
+		int b = 0;
+		if (a > 5) {
+			b = 7;
+			if (p > 0) b = 9;
+		}
+		int[] t = new int[8];
+		t[0] = b + 0;
+		t[1] = b + 1;
+		t[2] = b + 2;
+		t[3] = b + 3;
+		t[4] = b + 4;
+		t[5] = b + 5;
+		t[6] = b + 6;
+		t[7] = b + 7;
+		t[0] = b + 8;
+		t[1] = b + 9;
+		t[2] = b + 10;
+		t[3] = b + 11;
+		t[4] = b + 12;
+		t[5] = b + 13;
+		t[6] = b + 14;
+		t[7] = b + 15;
+		t[0] = b + 16;
+		t[1] = b + 17;
+		t[2] = b + 18;
+		t[3] = b + 19;
+		t[4] = b + 20;
+		t[5] = b + 21;
+		t[6] = b + 22;
+		t[7] = b + 23;
+		t[0] = b + 24;
+		t[1] = b + 25;
+		t[2] = b + 26;
+		t[3] = b + 27;
+		t[4] = b + 28;
+		t[5] = b + 29;
+		t[6] = b + 30;
+		t[7] = b + 31;
+		t[0] = b + 32;
+		t[1] = b + 33;
+		t[2] = b + 34;
+		t[3] = b + 35;
+		return t[p & 7];
+	}
+
+	// CAST: null-or-object, mixed types, an array, a parameter, a library call result, a local call result
+	private static int cast_01(Object p, boolean flag) {
+		Object a = flag ? new Probe() : null;
+		Probe t = (Probe) a;
+		Object b = flag ? new Probe() : "s";
+		Probe u = (Probe) b;
+		Object c = new Object[2];
+		Object[] arr = (Object[]) c;
+		Probe q = (Probe) p;
+		java.util.List<Probe> list = new java.util.ArrayList<>();
+		list.add(t);
+		Probe g = list.get(0);
+		Object d = escape_01(null);
+		Probe e = (Probe) d;
+		return t.hashCode() + u.hashCode() + arr.length + q.hashCode() + g.hashCode() + e.hashCode();
+	}
+
+	public static void main(String[] args) {
+		System.out.println("Running Probe");
+		strided_01(0);
+		nullRefine_01(0);
+		nullRefine_02(0);
+		iaHeap_01(0);
+		new Probe().iaHeap_02();
+		ptsStrong_01(0);
+		escape_01(new Probe());
+		loopAlloc_01(0);
+		tripCount_01(true);
+		nullCheck_01(new Probe(), true);
+		nullCheck_02(new Object());
+		nullCheck_03(false);
+		new Probe().nullCheck_04();
+		nullCheck_05(null, 3);
+		nullCheck_06();
+		deadBranch_01(1);
+		deadBranch_02(1);
+		cast_01(new Probe(), true);
+		System.out.println("Completed");
+	}
+}